@@ -23,6 +23,7 @@ import com.jagrosh.jmusicbot.audio.AudioHandler;
 import com.jagrosh.jmusicbot.audio.NowplayingHandler;
 import com.jagrosh.jmusicbot.audio.PlayerManager;
 import com.jagrosh.jmusicbot.gui.GUI;
+import com.jagrosh.jmusicbot.metrics.MetricsServer;
 import com.jagrosh.jmusicbot.playlist.PlaylistLoader;
 import com.jagrosh.jmusicbot.settings.SettingsManager;
 import java.util.Objects;
@@ -44,6 +45,7 @@ public class Bot
     private final PlaylistLoader playlists;
     private final NowplayingHandler nowplaying;
     private final AloneInVoiceHandler aloneInVoiceHandler;
+    private final MetricsServer metrics;
     
     private boolean shuttingDown = false;
     private JDA jda;
@@ -56,12 +58,20 @@ public class Bot
         this.settings = settings;
         this.playlists = new PlaylistLoader(config);
         this.threadpool = Executors.newSingleThreadScheduledExecutor();
+        this.settings.init(threadpool);
         this.players = new PlayerManager(this);
         this.players.init();
         this.nowplaying = new NowplayingHandler(this);
         this.nowplaying.init();
         this.aloneInVoiceHandler = new AloneInVoiceHandler(this);
         this.aloneInVoiceHandler.init();
+        if(config.getMetricsPort() > 0)
+        {
+            this.metrics = new MetricsServer(this, config.getMetricsHost(), config.getMetricsPort());
+            this.metrics.start();
+        }
+        else
+            this.metrics = null;
     }
     
     public BotConfig getConfig()
@@ -128,6 +138,9 @@ public class Bot
         if(shuttingDown)
             return;
         shuttingDown = true;
+        settings.shutdown();
+        if(metrics!=null)
+            metrics.stop();
         threadpool.shutdownNow();
         if(jda.getStatus()!=JDA.Status.SHUTTING_DOWN)
         {
@@ -41,16 +41,16 @@ public class BotConfig
     private Path path = null;
     private String token, prefix, altprefix, helpWord, playlistsFolder, logLevel,
             successEmoji, warningEmoji, errorEmoji, loadingEmoji, searchingEmoji,
-            evalEngine;
+            evalEngine, settingsStore, metricsHost;
     private boolean stayInChannel, songInGame, npImages, updatealerts, useEval, dbots, bilibiliEnabled;
-    private long owner, maxSeconds, aloneTimeUntilStop;
-    private int maxYTPlaylistPages;
+    private long owner, maxSeconds, aloneTimeUntilStop, searchCacheTime;
+    private int maxYTPlaylistPages, playlistLoadThreads, prefetchFrames, metricsPort, loadThreads, loadsPerGuild, searchCacheSize;
     private double skipratio;
     private OnlineStatus status;
     private Activity game;
     private Config aliases, transforms;
     private String bilibiliUserAgent, bilibiliReferer, bilibiliOrigin, bilibiliSessdata;
-    private int bilibiliMaxBitrateKbps;
+    private int bilibiliMaxBitrateKbps, bilibiliMaxConnections, bilibiliMaxConnectionsPerRoute, bilibiliIdleTimeoutSeconds;
 
     private boolean valid = false;
     
@@ -96,10 +96,19 @@ public class BotConfig
             maxSeconds = config.getLong("maxtime");
             maxYTPlaylistPages = config.getInt("maxytplaylistpages");
             aloneTimeUntilStop = config.getLong("alonetimeuntilstop");
+            prefetchFrames = Math.max(0, config.getInt("prefetchframes"));
             playlistsFolder = config.getString("playlistsfolder");
+            playlistLoadThreads = Math.max(1, config.getInt("playlistloadthreads"));
+            loadThreads = Math.max(1, config.getInt("loadthreads"));
+            loadsPerGuild = Math.max(1, config.getInt("loadsperguild"));
+            searchCacheSize = Math.max(0, config.getInt("searchcachesize"));
+            searchCacheTime = Math.max(0, config.getLong("searchcachetime"));
             aliases = config.getConfig("aliases");
             transforms = config.getConfig("transforms");
             skipratio = config.getDouble("skipratio");
+            settingsStore = config.getString("settingsstore");
+            metricsPort = config.getInt("metricsport");
+            metricsHost = config.getString("metricshost");
             
             // Bilibili configuration with defaults
             bilibiliEnabled = config.hasPath("bilibili.enabled") ? config.getBoolean("bilibili.enabled") : true;
@@ -111,6 +120,9 @@ public class BotConfig
                 "https://www.bilibili.com";
             bilibiliMaxBitrateKbps = config.hasPath("bilibili.maxBitrateKbps") ? config.getInt("bilibili.maxBitrateKbps") : 320;
             bilibiliSessdata = config.hasPath("bilibili.sessdata") ? config.getString("bilibili.sessdata") : "";
+            bilibiliMaxConnections = config.hasPath("bilibili.maxConnections") ? config.getInt("bilibili.maxConnections") : 20;
+            bilibiliMaxConnectionsPerRoute = config.hasPath("bilibili.maxConnectionsPerRoute") ? config.getInt("bilibili.maxConnectionsPerRoute") : 8;
+            bilibiliIdleTimeoutSeconds = config.hasPath("bilibili.idleTimeoutSeconds") ? config.getInt("bilibili.idleTimeoutSeconds") : 30;
             
             dbots = owner == 113156185389092864L;
             
@@ -322,6 +334,46 @@ public class BotConfig
         return playlistsFolder;
     }
     
+    public int getPrefetchFrames()
+    {
+        return prefetchFrames;
+    }
+    
+    public int getPlaylistLoadThreads()
+    {
+        return playlistLoadThreads;
+    }
+    
+    public int getLoadThreads()
+    {
+        return loadThreads;
+    }
+    
+    public int getLoadsPerGuild()
+    {
+        return loadsPerGuild;
+    }
+    
+    public int getSearchCacheSize()
+    {
+        return searchCacheSize;
+    }
+    
+    public long getSearchCacheTime()
+    {
+        return searchCacheTime;
+    }
+    
+    public int getMetricsPort()
+    {
+        return metricsPort;
+    }
+    
+    public String getMetricsHost()
+    {
+        return metricsHost;
+    }
+    
     public boolean getDBots()
     {
         return dbots;
@@ -347,6 +399,11 @@ public class BotConfig
         return evalEngine;
     }
     
+    public String getSettingsStore()
+    {
+        return settingsStore;
+    }
+    
     public boolean useNPImages()
     {
         return npImages;
@@ -425,4 +482,19 @@ public class BotConfig
     {
         return bilibiliSessdata;
     }
+    
+    public int getBilibiliMaxConnections()
+    {
+        return bilibiliMaxConnections;
+    }
+    
+    public int getBilibiliMaxConnectionsPerRoute()
+    {
+        return bilibiliMaxConnectionsPerRoute;
+    }
+    
+    public int getBilibiliIdleTimeoutSeconds()
+    {
+        return bilibiliIdleTimeoutSeconds;
+    }
 }
@@ -95,7 +95,7 @@ public class JMusicBot
 
         // set up the listener
         EventWaiter waiter = new EventWaiter();
-        SettingsManager settings = new SettingsManager();
+        SettingsManager settings = new SettingsManager(config.getSettingsStore());
         Bot bot = new Bot(waiter, config, settings);
         CommandClient client = createCommandClient(config, settings, bot);
         
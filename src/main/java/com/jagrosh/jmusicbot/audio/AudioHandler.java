@@ -15,7 +15,9 @@
  */
 package com.jagrosh.jmusicbot.audio;
 
+import com.jagrosh.jmusicbot.metrics.PlaybackStats;
 import com.jagrosh.jmusicbot.playlist.PlaylistLoader.Playlist;
+import com.jagrosh.jmusicbot.playlist.PlaylistStream;
 import com.jagrosh.jmusicbot.queue.AbstractQueue;
 import com.jagrosh.jmusicbot.settings.QueueType;
 import com.jagrosh.jmusicbot.utils.TimeUtil;
@@ -25,11 +27,14 @@ import com.sedmelluq.discord.lavaplayer.player.event.AudioEventAdapter;
 import com.sedmelluq.discord.lavaplayer.tools.FriendlyException;
 import com.sedmelluq.discord.lavaplayer.track.AudioTrack;
 import com.sedmelluq.discord.lavaplayer.track.AudioTrackEndReason;
-import com.sedmelluq.discord.lavaplayer.track.playback.AudioFrame;
+import com.sedmelluq.discord.lavaplayer.format.StandardAudioDataFormats;
+import com.sedmelluq.discord.lavaplayer.track.playback.MutableAudioFrame;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashSet;
-import java.util.LinkedList;
 import java.util.List;
 import java.util.Set;
+import java.util.function.Predicate;
 import com.jagrosh.jmusicbot.settings.Settings;
 import com.jagrosh.jmusicbot.utils.FormatUtil;
 import com.sedmelluq.discord.lavaplayer.source.youtube.YoutubeAudioTrack;
@@ -53,29 +58,75 @@ public class AudioHandler extends AudioEventAdapter implements AudioSendHandler
     public final static String PAUSE_EMOJI = "\u23F8"; // ⏸
     public final static String STOP_EMOJI  = "\u23F9"; // ⏹
 
+    // tracks of the default playlist to keep loaded ahead of time
+    private final static int DEFAULT_PREFETCH = 2;
 
-    private final List<AudioTrack> defaultQueue = new LinkedList<>();
     private final Set<String> votes = new HashSet<>();
     
     private final PlayerManager manager;
     private final AudioPlayer audioPlayer;
     private final long guildId;
+    // settings objects live as long as the bot, so this is resolved once and
+    // changes are picked up through onSettingsChanged
+    private final Settings settings;
     
-    private AudioFrame lastFrame;
+    // frames are copied into this buffer instead of being allocated, since
+    // this runs every 20ms for every playing guild
+    private final ByteBuffer frameBuffer = ByteBuffer.allocateDirect(StandardAudioDataFormats.DISCORD_OPUS.maximumChunkSize());
+    private final MutableAudioFrame frame = new MutableAudioFrame();
+    // frames read ahead by PlayerManager; null if reading ahead is disabled
+    private final FrameRingBuffer prefetched;
+    private final Predicate<MutableAudioFrame> frameSource;
+    private ByteBuffer sendBuffer;
+    
+    private final PlaybackStats stats = new PlaybackStats();
+    // stats of the playing track's source
+    private volatile PlaybackStats sourceStats;
+    // when the playing track started, until its first frame is sent
+    private volatile long trackStartedAt = 0;
+    // only used by the send thread
+    private long lastFrameAt = 0;
     private AbstractQueue<QueuedTrack> queue;
+    private QueueType queueType;
+    private volatile PlaylistStream defaultStream;
 
     protected AudioHandler(PlayerManager manager, Guild guild, AudioPlayer player)
     {
         this.manager = manager;
         this.audioPlayer = player;
         this.guildId = guild.getIdLong();
+        this.settings = manager.getBot().getSettingsManager().getSettings(guildId);
+        this.frame.setBuffer(frameBuffer);
+        int prefetchFrames = manager.getBot().getConfig().getPrefetchFrames();
+        this.prefetched = prefetchFrames > 0 ? new FrameRingBuffer(prefetchFrames) : null;
+        this.frameSource = audioPlayer::provide;
 
-        this.setQueueType(manager.getBot().getSettingsManager().getSettings(guildId).getQueueType());
+        this.setQueueType(settings.getQueueType());
+        audioPlayer.setVolume(settings.getVolume());
     }
 
     public void setQueueType(QueueType type)
     {
+        if(type == queueType)
+            return;
         queue = type.createInstance(queue);
+        queueType = type;
+    }
+
+    public Settings getSettings()
+    {
+        return settings;
+    }
+
+    /**
+     * Applies this guild's current queue type and volume; called whenever its
+     * settings change
+     */
+    protected void onSettingsChanged()
+    {
+        setQueueType(settings.getQueueType());
+        if(audioPlayer.getVolume() != settings.getVolume())
+            audioPlayer.setVolume(settings.getVolume());
     }
 
     public int addTrackToFront(QueuedTrack qtrack)
@@ -102,6 +153,32 @@ public class AudioHandler extends AudioEventAdapter implements AudioSendHandler
         else
             return queue.add(qtrack);
     }
+
+    /**
+     * Adds several tracks with a single queue operation, skipping any that are
+     * longer than the allowed maximum. If nothing is playing, the first track
+     * starts playing and the rest are queued.
+     *
+     * @param qtracks the tracks to add, in order
+     * @return the number of tracks that were added
+     */
+    public int addTracks(Collection<QueuedTrack> qtracks)
+    {
+        List<QueuedTrack> accepted = new ArrayList<>(qtracks.size());
+        for(QueuedTrack qtrack: qtracks)
+            if(!manager.getBot().getConfig().isTooLong(qtrack.getTrack()))
+                accepted.add(qtrack);
+        if(accepted.isEmpty())
+            return 0;
+        if(audioPlayer.getPlayingTrack()==null)
+        {
+            audioPlayer.playTrack(accepted.get(0).getTrack());
+            queue.addAll(accepted.subList(1, accepted.size()));
+        }
+        else
+            queue.addAll(accepted);
+        return accepted.size();
+    }
     
     public AbstractQueue<QueuedTrack> getQueue()
     {
@@ -111,7 +188,7 @@ public class AudioHandler extends AudioEventAdapter implements AudioSendHandler
     public void stopAndClear()
     {
         queue.clear();
-        defaultQueue.clear();
+        closeDefaultStream();
         audioPlayer.stopTrack();
         //current = null;
     }
@@ -141,37 +218,73 @@ public class AudioHandler extends AudioEventAdapter implements AudioSendHandler
     
     public boolean playFromDefault()
     {
-        if(!defaultQueue.isEmpty())
+        PlaylistStream stream = defaultStream;
+        if(stream != null)
         {
-            audioPlayer.playTrack(defaultQueue.remove(0));
-            return true;
+            AudioTrack next = stream.poll();
+            if(next != null)
+            {
+                audioPlayer.playTrack(next);
+                return true;
+            }
+            // the next track will start playing once it is loaded
+            if(!stream.isFinished())
+                return true;
+            closeDefaultStream();
         }
-        Settings settings = manager.getBot().getSettingsManager().getSettings(guildId);
-        if(settings==null || settings.getDefaultPlaylist()==null)
+        if(settings.getDefaultPlaylist()==null)
             return false;
         
         Playlist pl = manager.getBot().getPlaylistLoader().getPlaylist(settings.getDefaultPlaylist());
         if(pl==null || pl.getItems().isEmpty())
             return false;
-        pl.loadTracks(manager, (at) -> 
+        PlaylistStream[] created = new PlaylistStream[1];
+        defaultStream = created[0] = pl.stream(manager, guildId, DEFAULT_PREFETCH, () -> 
         {
-            if(audioPlayer.getPlayingTrack()==null)
-                audioPlayer.playTrack(at);
-            else
-                defaultQueue.add(at);
+            if(created[0] == defaultStream && audioPlayer.getPlayingTrack()==null && queue.isEmpty())
+            {
+                AudioTrack next = created[0].poll();
+                if(next != null)
+                    audioPlayer.playTrack(next);
+            }
         }, () -> 
         {
-            if(pl.getTracks().isEmpty() && !manager.getBot().getConfig().getStay())
-                manager.getBot().closeAudioConnection(guildId);
+            if(created[0] != defaultStream || audioPlayer.getPlayingTrack()!=null || !queue.isEmpty())
+                return;
+            closeDefaultStream();
+            if(!created[0].hasProduced())
+            {
+                if(!manager.getBot().getConfig().getStay())
+                    manager.getBot().closeAudioConnection(guildId);
+            }
+            else
+                playFromDefault();
         });
+        created[0].start();
         return true;
     }
     
+    private void closeDefaultStream()
+    {
+        PlaylistStream stream = defaultStream;
+        defaultStream = null;
+        if(stream != null)
+            stream.close();
+    }
+    
     // Audio Events
     @Override
     public void onTrackEnd(AudioPlayer player, AudioTrack track, AudioTrackEndReason endReason) 
     {
-        RepeatMode repeatMode = manager.getBot().getSettingsManager().getSettings(guildId).getRepeatMode();
+        // frames read ahead from a track that didn't finish shouldn't be heard
+        if(prefetched != null && endReason != AudioTrackEndReason.FINISHED)
+            prefetched.flush();
+        manager.onTrackEvent(() -> handleTrackEnd(player, track, endReason));
+    }
+    
+    private synchronized void handleTrackEnd(AudioPlayer player, AudioTrack track, AudioTrackEndReason endReason)
+    {
+        RepeatMode repeatMode = settings.getRepeatMode();
         // if the track ended normally, and we're in repeat mode, re-add it to the queue
         if(endReason==AudioTrackEndReason.FINISHED && repeatMode != RepeatMode.OFF)
         {
@@ -206,9 +319,21 @@ public class AudioHandler extends AudioEventAdapter implements AudioSendHandler
         LoggerFactory.getLogger("AudioHandler").error("Track " + track.getIdentifier() + " has failed to play", exception);
     }
 
+    @Override
+    public void onTrackStuck(AudioPlayer player, AudioTrack track, long thresholdMs)
+    {
+        stats.recordStuck();
+        PlaybackStats source = sourceStats;
+        if(source != null)
+            source.recordStuck();
+        LoggerFactory.getLogger("AudioHandler").warn("Track " + track.getIdentifier() + " got stuck for over " + thresholdMs + "ms in guild " + guildId);
+    }
+
     @Override
     public void onTrackStart(AudioPlayer player, AudioTrack track) 
     {
+        sourceStats = manager.getPlaybackMetrics().forSource(track.getSourceManager() == null ? "unknown" : track.getSourceManager().getSourceName());
+        trackStartedAt = System.nanoTime();
         votes.clear();
         manager.getBot().getNowplayingHandler().onTrackUpdate(track);
     }
@@ -281,38 +406,83 @@ public class AudioHandler extends AudioEventAdapter implements AudioSendHandler
     }
     
     // Audio Send Handler methods
-    /*@Override
-    public boolean canProvide() 
+    /**
+     * Reads frames ahead into the prefetch buffer; called regularly by
+     * PlayerManager, never from two threads at once
+     */
+    protected void prefetch()
     {
-        if (lastFrame == null)
-            lastFrame = audioPlayer.provide();
-
-        return lastFrame != null;
+        if(prefetched != null)
+            prefetched.fill(frameSource);
     }
-
-    @Override
-    public byte[] provide20MsAudio() 
+    
+    /**
+     * @return how many times a frame was due while a track was playing, but
+     *         none had been read ahead yet
+     */
+    public long getUnderruns()
     {
-        if (lastFrame == null) 
-            lastFrame = audioPlayer.provide();
-
-        byte[] data = lastFrame != null ? lastFrame.getData() : null;
-        lastFrame = null;
-
-        return data;
-    }*/
+        return prefetched == null ? 0 : prefetched.getUnderruns();
+    }
+    
+    public PlaybackStats getPlaybackStats()
+    {
+        return stats;
+    }
     
     @Override
     public boolean canProvide() 
     {
-        lastFrame = audioPlayer.provide();
-        return lastFrame != null;
+        boolean playing = audioPlayer.getPlayingTrack()!=null && !audioPlayer.isPaused();
+        boolean provided;
+        if(prefetched != null)
+        {
+            sendBuffer = prefetched.poll(playing);
+            provided = sendBuffer != null;
+        }
+        else
+        {
+            frameBuffer.clear();
+            provided = audioPlayer.provide(frame);
+        }
+        recordSend(provided, playing);
+        return provided;
+    }
+    
+    private void recordSend(boolean provided, boolean playing)
+    {
+        long now = System.nanoTime();
+        PlaybackStats source = sourceStats;
+        if(provided)
+        {
+            long started = trackStartedAt;
+            if(started != 0)
+            {
+                trackStartedAt = 0;
+                stats.recordFirstFrame((now - started) / 1000000);
+                if(source != null)
+                    source.recordFirstFrame((now - started) / 1000000);
+            }
+            long interval = lastFrameAt == 0 ? -1 : (now - lastFrameAt) / 1000000;
+            lastFrameAt = now;
+            stats.recordFrame(interval);
+            if(source != null)
+                source.recordFrame(interval);
+        }
+        else if(playing)
+        {
+            stats.recordMiss();
+            if(source != null)
+                source.recordMiss();
+        }
+        else
+            lastFrameAt = 0; // don't count pauses as slow frames
     }
 
     @Override
     public ByteBuffer provide20MsAudio() 
     {
-        return ByteBuffer.wrap(lastFrame.getData());
+        return prefetched != null ? sendBuffer : frameBuffer.flip();
     }
 
     @Override
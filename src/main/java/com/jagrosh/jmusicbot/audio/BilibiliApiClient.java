@@ -11,6 +11,8 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * Client for making API calls to Bilibili services
@@ -20,6 +22,10 @@ public class BilibiliApiClient {
     
     private final ObjectMapper objectMapper;
     private final BilibiliHttpManager httpManager;
+    private final BilibiliCache<String, BilibiliVideoInfo> videoInfoCache =
+        new BilibiliCache<>(BilibiliConstants.VIDEO_INFO_CACHE_SIZE);
+    private final BilibiliCache<String, BilibiliStreamInfo> streamInfoCache =
+        new BilibiliCache<>(BilibiliConstants.STREAM_INFO_CACHE_SIZE);
     
     public BilibiliApiClient(BilibiliHttpManager httpManager) {
         this.httpManager = httpManager;
@@ -27,9 +33,69 @@ public class BilibiliApiClient {
     }
     
     /**
-     * Fetches video information from Bilibili API
+     * Fetches video information from Bilibili API, or from the cache if it was fetched recently
      */
     public BilibiliVideoInfo getVideoInfo(String videoId) throws IOException {
+        BilibiliVideoInfo cached = videoInfoCache.get(videoId);
+        if (cached != null) {
+            log.debug("Using cached video info for {}", videoId);
+            return cached;
+        }
+        
+        BilibiliVideoInfo videoInfo = fetchVideoInfo(videoId);
+        videoInfoCache.put(videoId, videoInfo, System.currentTimeMillis() + BilibiliConstants.VIDEO_INFO_CACHE_TTL_MS);
+        return videoInfo;
+    }
+    
+    /**
+     * Fetches stream URLs from Bilibili player API, or from the cache while the
+     * signed URLs fetched last time are still valid
+     */
+    public BilibiliStreamInfo getStreamInfo(String videoId, long cid) throws IOException {
+        String key = streamInfoKey(videoId, cid);
+        BilibiliStreamInfo cached = streamInfoCache.get(key);
+        if (cached != null) {
+            log.debug("Using cached stream info for {}", key);
+            return cached;
+        }
+        
+        BilibiliStreamInfo streamInfo = fetchStreamInfo(videoId, cid);
+        streamInfoCache.put(key, streamInfo, streamInfoExpiry(streamInfo));
+        return streamInfo;
+    }
+    
+    /**
+     * Drops the cached stream info of a video part, such as after its URL failed to play
+     */
+    public void invalidateStreamInfo(String videoId, long cid) {
+        streamInfoCache.invalidate(streamInfoKey(videoId, cid));
+    }
+    
+    public BilibiliCache<String, BilibiliVideoInfo> getVideoInfoCache() {
+        return videoInfoCache;
+    }
+    
+    public BilibiliCache<String, BilibiliStreamInfo> getStreamInfoCache() {
+        return streamInfoCache;
+    }
+    
+    private static String streamInfoKey(String videoId, long cid) {
+        return videoId + ":" + cid;
+    }
+    
+    /**
+     * Stream URLs are signed and stop working at their deadline, so they are
+     * only cached until shortly before it
+     */
+    private static long streamInfoExpiry(BilibiliStreamInfo streamInfo) {
+        long expiresAt = System.currentTimeMillis() + BilibiliConstants.STREAM_INFO_CACHE_TTL_MS;
+        if (streamInfo.getExpiresAt() > 0) {
+            expiresAt = Math.min(expiresAt, streamInfo.getExpiresAt() - BilibiliConstants.STREAM_URL_EXPIRY_MARGIN_MS);
+        }
+        return expiresAt;
+    }
+    
+    private BilibiliVideoInfo fetchVideoInfo(String videoId) throws IOException {
         String apiUrl = BilibiliUtil.buildVideoInfoUrl(videoId);
         if (apiUrl == null) {
             throw new IllegalArgumentException("Invalid video ID format: " + videoId);
@@ -43,10 +109,7 @@ public class BilibiliApiClient {
         }
     }
     
-    /**
-     * Fetches stream URLs from Bilibili player API
-     */
-    public BilibiliStreamInfo getStreamInfo(String videoId, long cid) throws IOException {
+    private BilibiliStreamInfo fetchStreamInfo(String videoId, long cid) throws IOException {
         String apiUrl = BilibiliUtil.buildPlayerUrl(videoId, cid);
         if (apiUrl == null) {
             throw new IllegalArgumentException("Invalid parameters - videoId: " + videoId + ", cid: " + cid);
@@ -60,6 +123,139 @@ public class BilibiliApiClient {
         }
     }
     
+    /**
+     * Fetches the videos of a favorites list, as many pages at a time as the API allows
+     */
+    public BilibiliPlaylistInfo getFavorites(String mediaId) throws IOException {
+        String title = null;
+        List<BilibiliPlaylistInfo.Entry> entries = new ArrayList<>();
+        
+        for (int page = 1; entries.size() < BilibiliConstants.MAX_PLAYLIST_ENTRIES; page++) {
+            JsonNode data = requestData(BilibiliUtil.buildFavoritesUrl(mediaId, page));
+            if (title == null) {
+                title = data.path("info").path("title").asText("Bilibili Favorites");
+            }
+            
+            JsonNode medias = data.path("medias");
+            for (JsonNode media : medias) {
+                // Audio and removed videos can't be played as videos
+                if (media.path("type").asInt() != BilibiliConstants.FAVORITES_VIDEO_TYPE || media.path("attr").asInt() != 0) {
+                    continue;
+                }
+                entries.add(new BilibiliPlaylistInfo.Entry(
+                    media.path("bvid").asText(),
+                    media.path("title").asText("Unknown Title"),
+                    media.path("upper").path("name").asText("Unknown Artist"),
+                    media.path("duration").asLong(0) * 1000));
+            }
+            
+            if (!data.path("has_more").asBoolean(false) || medias.size() == 0) {
+                break;
+            }
+        }
+        
+        log.info("Loaded favorites list {} with {} videos", mediaId, entries.size());
+        return new BilibiliPlaylistInfo(title, limit(entries));
+    }
+    
+    /**
+     * Fetches the videos of a collection (合集)
+     */
+    public BilibiliPlaylistInfo getCollection(String mid, String seasonId) throws IOException {
+        String title = null;
+        String owner = getUploaderName(mid);
+        List<BilibiliPlaylistInfo.Entry> entries = new ArrayList<>();
+        
+        for (int page = 1; entries.size() < BilibiliConstants.MAX_PLAYLIST_ENTRIES; page++) {
+            JsonNode data = requestData(BilibiliUtil.buildCollectionUrl(mid, seasonId, page));
+            if (title == null) {
+                title = data.path("meta").path("name").asText("Bilibili Collection");
+            }
+            
+            if (addArchives(data.path("archives"), owner, entries) == 0 || entries.size() >= data.path("page").path("total").asInt(0)) {
+                break;
+            }
+        }
+        
+        log.info("Loaded collection {} with {} videos", seasonId, entries.size());
+        return new BilibiliPlaylistInfo(title, limit(entries));
+    }
+    
+    /**
+     * Fetches the videos of a series (系列)
+     */
+    public BilibiliPlaylistInfo getSeries(String mid, String seriesId) throws IOException {
+        String title = requestData(BilibiliUtil.buildSeriesInfoUrl(seriesId)).path("meta").path("name").asText("Bilibili Series");
+        String owner = getUploaderName(mid);
+        List<BilibiliPlaylistInfo.Entry> entries = new ArrayList<>();
+        
+        for (int page = 1; entries.size() < BilibiliConstants.MAX_PLAYLIST_ENTRIES; page++) {
+            JsonNode data = requestData(BilibiliUtil.buildSeriesUrl(mid, seriesId, page));
+            if (addArchives(data.path("archives"), owner, entries) == 0 || entries.size() >= data.path("page").path("total").asInt(0)) {
+                break;
+            }
+        }
+        
+        log.info("Loaded series {} with {} videos", seriesId, entries.size());
+        return new BilibiliPlaylistInfo(title, limit(entries));
+    }
+    
+    /**
+     * Looks up the name of the uploader a collection or series belongs to, since
+     * the archive lists only carry videos, not who made them
+     */
+    private String getUploaderName(String mid) {
+        try {
+            return requestData(BilibiliUtil.buildUserCardUrl(mid)).path("card").path("name").asText("Unknown Artist");
+        } catch (IOException e) {
+            // The videos still play without it
+            log.warn("Failed to look up uploader {}: {}", mid, e.getMessage());
+            return "Unknown Artist";
+        }
+    }
+    
+    private int addArchives(JsonNode archives, String owner, List<BilibiliPlaylistInfo.Entry> entries) {
+        for (JsonNode archive : archives) {
+            entries.add(new BilibiliPlaylistInfo.Entry(
+                archive.path("bvid").asText(),
+                archive.path("title").asText("Unknown Title"),
+                owner,
+                archive.path("duration").asLong(0) * 1000));
+        }
+        return archives.size();
+    }
+    
+    private static List<BilibiliPlaylistInfo.Entry> limit(List<BilibiliPlaylistInfo.Entry> entries) {
+        return entries.size() > BilibiliConstants.MAX_PLAYLIST_ENTRIES
+            ? entries.subList(0, BilibiliConstants.MAX_PLAYLIST_ENTRIES)
+            : entries;
+    }
+    
+    /**
+     * Requests an API URL and returns the data field of its response
+     */
+    private JsonNode requestData(String apiUrl) throws IOException {
+        log.info("Calling Bilibili API: {}", apiUrl);
+        
+        String response;
+        try (HttpInterface httpInterface = httpManager.getHttpInterfaceManager().getInterface()) {
+            response = makeHttpRequest(httpInterface, apiUrl);
+        }
+        
+        JsonNode root = objectMapper.readTree(response);
+        int code = root.path("code").asInt(-1);
+        if (code != BilibiliConstants.API_SUCCESS_CODE) {
+            String message = root.path("message").asText("Unknown error");
+            throw new IOException("Bilibili API returned error code: " + code + " - " + message);
+        }
+        
+        JsonNode data = root.path("data");
+        if (data.isMissingNode() || data.isNull()) {
+            throw new IOException("No data field in Bilibili API response");
+        }
+        return data;
+    }
+    
     private String makeHttpRequest(HttpInterface httpInterface, String url) throws IOException {
         try (CloseableHttpResponse response = httpInterface.execute(new HttpGet(url))) {
             int statusCode = response.getStatusLine().getStatusCode();
@@ -114,10 +310,20 @@ public class BilibiliApiClient {
                 throw new IOException("Could not extract CID from video info");
             }
             
-            log.info("Extracted video info: title='{}', author='{}', duration={}s, cid={}", 
-                title, author, durationSeconds, cid);
+            // Every part of a multi-part video comes with the same response
+            List<BilibiliVideoInfo.Page> pages = new ArrayList<>();
+            for (JsonNode page : data.path("pages")) {
+                pages.add(new BilibiliVideoInfo.Page(
+                    page.path("page").asInt(pages.size() + 1),
+                    page.path("cid").asLong(0),
+                    page.path("part").asText(""),
+                    page.path("duration").asLong(0) * 1000));
+            }
+            
+            log.info("Extracted video info: title='{}', author='{}', duration={}s, cid={}, pages={}", 
+                title, author, durationSeconds, cid, pages.size());
             
-            return new BilibiliVideoInfo(title, author, durationSeconds * 1000, cid);
+            return new BilibiliVideoInfo(title, author, durationSeconds * 1000, cid, pages);
             
         } catch (Exception e) {
             throw new IOException("Error parsing video info: " + e.getMessage(), e);
@@ -148,15 +354,15 @@ public class BilibiliApiClient {
             }
             
             // Try to extract audio stream from DASH format first
-            String streamUrl = extractDashAudioUrl(data);
-            if (streamUrl != null) {
-                return new BilibiliStreamInfo(streamUrl, "DASH");
+            BilibiliStreamInfo streamInfo = extractDashAudio(data);
+            if (streamInfo != null) {
+                return streamInfo;
             }
             
             // Fallback to durl format (legacy format)
-            streamUrl = extractDurlUrl(data);
-            if (streamUrl != null) {
-                return new BilibiliStreamInfo(streamUrl, "FLV");
+            streamInfo = extractDurl(data);
+            if (streamInfo != null) {
+                return streamInfo;
             }
             
             throw new IOException("No compatible audio streams found in Bilibili player API response");
@@ -166,7 +372,7 @@ public class BilibiliApiClient {
         }
     }
     
-    private String extractDashAudioUrl(JsonNode data) {
+    private BilibiliStreamInfo extractDashAudio(JsonNode data) {
         JsonNode dash = data.path("dash");
         if (dash.isMissingNode()) {
             return null;
@@ -179,59 +385,95 @@ public class BilibiliApiClient {
             return null;
         }
         
-        // Select the best quality audio stream
-        JsonNode bestAudio = selectBestAudioStream(audioStreams);
+        JsonNode bestAudio = selectBestAudioStream(audioStreams, httpManager.getConfig().getMaxBitrateKbps());
         if (bestAudio == null) {
             return null;
         }
         
-        String audioUrl = bestAudio.path("baseUrl").asText();
-        if (audioUrl.isEmpty()) {
-            audioUrl = bestAudio.path("base_url").asText();
-        }
-        
-        if (!audioUrl.isEmpty()) {
-            log.info("Selected best audio stream: id={}, bandwidth={}", 
-                bestAudio.path("id").asInt(), bestAudio.path("bandwidth").asInt());
-            return audioUrl;
+        List<String> urls = new ArrayList<>();
+        addUrl(urls, bestAudio.path("baseUrl"));
+        addUrl(urls, bestAudio.path("base_url"));
+        addUrls(urls, bestAudio.path("backupUrl"));
+        addUrls(urls, bestAudio.path("backup_url"));
+        if (urls.isEmpty()) {
+            return null;
         }
         
-        return null;
+        log.info("Selected audio stream: id={}, codecs={}, bandwidth={}, mirrors={}", 
+            bestAudio.path("id").asInt(), bestAudio.path("codecs").asText(), bestAudio.path("bandwidth").asInt(), urls.size());
+        return new BilibiliStreamInfo(urls, "DASH", bestAudio.path("bandwidth").asInt(0));
     }
     
-    private String extractDurlUrl(JsonNode data) {
+    private BilibiliStreamInfo extractDurl(JsonNode data) {
         JsonNode durl = data.path("durl");
         if (!durl.isArray() || durl.size() == 0) {
             return null;
         }
         
         log.info("Found durl format streams (fallback)");
-        String videoUrl = durl.get(0).path("url").asText();
-        if (!videoUrl.isEmpty()) {
-            log.info("Selected video stream URL (contains audio)");
-            return videoUrl;
+        List<String> urls = new ArrayList<>();
+        addUrl(urls, durl.get(0).path("url"));
+        addUrls(urls, durl.get(0).path("backup_url"));
+        if (urls.isEmpty()) {
+            return null;
         }
         
-        return null;
+        log.info("Selected video stream URL (contains audio), mirrors={}", urls.size());
+        return new BilibiliStreamInfo(urls, "FLV", 0);
+    }
+    
+    private static void addUrl(List<String> urls, JsonNode url) {
+        String text = url.asText("");
+        if (!text.isEmpty() && !urls.contains(text)) {
+            urls.add(text);
+        }
+    }
+    
+    private static void addUrls(List<String> urls, JsonNode array) {
+        for (JsonNode url : array) {
+            addUrl(urls, url);
+        }
     }
     
-    private JsonNode selectBestAudioStream(JsonNode audioStreams) {
-        JsonNode bestStream = null;
-        int bestBandwidth = 0;
+    /**
+     * Selects the audio stream with the highest bandwidth within the configured cap,
+     * among the codecs lavaplayer decodes cheaply (AAC and Opus). If every such stream
+     * is over the cap, the lowest one is used; other codecs are only used if there is
+     * nothing else.
+     */
+    private static JsonNode selectBestAudioStream(JsonNode audioStreams, int maxBitrateKbps) {
+        long cap = maxBitrateKbps > 0 ? maxBitrateKbps * 1000L : Long.MAX_VALUE;
+        JsonNode best = null;
+        int bestRank = -1;
         
         for (JsonNode stream : audioStreams) {
             int bandwidth = stream.path("bandwidth").asInt(0);
-            int id = stream.path("id").asInt(0);
-            
-            log.debug("Found audio stream: id={}, bandwidth={}", id, bandwidth);
+            log.debug("Found audio stream: id={}, codecs={}, bandwidth={}", 
+                stream.path("id").asInt(0), stream.path("codecs").asText(), bandwidth);
             
-            // Select stream with highest bandwidth (best quality)
-            if (bandwidth > bestBandwidth) {
-                bestBandwidth = bandwidth;
-                bestStream = stream;
+            int rank = rankAudioStream(stream, cap);
+            if (best == null || rank > bestRank || (rank == bestRank && betterBandwidth(bandwidth, best.path("bandwidth").asInt(0), bandwidth <= cap))) {
+                best = stream;
+                bestRank = rank;
             }
         }
         
-        return bestStream;
+        return best;
+    }
+    
+    private static int rankAudioStream(JsonNode stream, long cap) {
+        boolean preferredCodec = isPreferredCodec(stream.path("codecs").asText(""));
+        boolean withinCap = stream.path("bandwidth").asInt(0) <= cap;
+        return (preferredCodec ? 2 : 0) + (withinCap ? 1 : 0);
+    }
+    
+    // within the cap the highest bandwidth is best, over it the lowest
+    private static boolean betterBandwidth(int bandwidth, int bestBandwidth, boolean withinCap) {
+        return withinCap ? bandwidth > bestBandwidth : bandwidth < bestBandwidth;
+    }
+    
+    private static boolean isPreferredCodec(String codecs) {
+        // Streams without codec information are assumed to be AAC, as Bilibili's usually are
+        return codecs.isEmpty() || codecs.startsWith(BilibiliConstants.CODEC_AAC) || codecs.startsWith(BilibiliConstants.CODEC_OPUS);
     }
 }
\ No newline at end of file
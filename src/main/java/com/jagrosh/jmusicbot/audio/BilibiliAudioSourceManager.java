@@ -7,6 +7,7 @@ import com.sedmelluq.discord.lavaplayer.track.AudioItem;
 import com.sedmelluq.discord.lavaplayer.track.AudioReference;
 import com.sedmelluq.discord.lavaplayer.track.AudioTrack;
 import com.sedmelluq.discord.lavaplayer.track.AudioTrackInfo;
+import com.sedmelluq.discord.lavaplayer.track.BasicAudioPlaylist;
 import org.apache.http.client.config.RequestConfig;
 import org.apache.http.impl.client.HttpClientBuilder;
 import org.slf4j.Logger;
@@ -15,8 +16,12 @@ import org.slf4j.LoggerFactory;
 import java.io.DataInput;
 import java.io.DataOutput;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.Consumer;
 import java.util.function.Function;
+import java.util.regex.Matcher;
 
 /**
  * Clean, refactored Bilibili audio source manager
@@ -27,6 +32,8 @@ public class BilibiliAudioSourceManager implements AudioSourceManager, HttpConfi
     private BilibiliConfig config;
     private BilibiliHttpManager httpManager;
     private BilibiliApiClient apiClient;
+    private final AtomicLong mirrorFailovers = new AtomicLong();
+    private final AtomicLong urlRefreshes = new AtomicLong();
     
     public BilibiliAudioSourceManager() {
         // Initialize with default configuration
@@ -72,6 +79,16 @@ public class BilibiliAudioSourceManager implements AudioSourceManager, HttpConfi
         }
         
         String url = reference.identifier;
+        try {
+            AudioItem playlist = loadBilibiliPlaylist(url);
+            if (playlist != null) {
+                return playlist;
+            }
+        } catch (Exception e) {
+            log.error("Error loading Bilibili playlist from URL: {}", url, e);
+            return null;
+        }
+        
         if (!BilibiliUtil.isValidBilibiliUrl(url)) {
             log.debug("URL is not a valid Bilibili URL: {}", url);
             return null;
@@ -98,6 +115,21 @@ public class BilibiliAudioSourceManager implements AudioSourceManager, HttpConfi
         // Get video information
         BilibiliVideoInfo videoInfo = apiClient.getVideoInfo(videoId);
         
+        // A multi-part video loads as a playlist of its parts, unless the URL picks one
+        if (videoInfo.isMultiPart()) {
+            BilibiliVideoInfo.Page page = videoInfo.getPage(BilibiliUtil.extractPage(url));
+            if (page != null) {
+                return createPartTrack(videoId, videoInfo, page);
+            }
+            
+            List<AudioTrack> tracks = new ArrayList<>();
+            for (BilibiliVideoInfo.Page part : videoInfo.getPages()) {
+                tracks.add(createPartTrack(videoId, videoInfo, part));
+            }
+            log.info("Loaded {} parts of Bilibili video {}", tracks.size(), videoId);
+            return new BasicAudioPlaylist(videoInfo.getTitle(), tracks, null, false);
+        }
+        
         // Create audio track info
         AudioTrackInfo trackInfo = new AudioTrackInfo(
             videoInfo.getTitle(),
@@ -117,6 +149,45 @@ public class BilibiliAudioSourceManager implements AudioSourceManager, HttpConfi
         return track;
     }
     
+    private BilibiliAudioTrack createPartTrack(String videoId, BilibiliVideoInfo videoInfo, BilibiliVideoInfo.Page page) {
+        String url = BilibiliUtil.buildVideoUrl(videoId, page.getNumber());
+        String title = page.getTitle().isEmpty() || page.getTitle().equals(videoInfo.getTitle())
+            ? videoInfo.getTitle() + " (P" + page.getNumber() + ")"
+            : videoInfo.getTitle() + " - " + page.getTitle();
+        AudioTrackInfo trackInfo = new AudioTrackInfo(title, videoInfo.getAuthor(), page.getDurationMs(), url, false, url);
+        return new BilibiliAudioTrack(trackInfo, this, page.getCid());
+    }
+    
+    /**
+     * Loads a favorites list, collection or series, or returns null if the URL is none of these.
+     * Only the list itself is fetched; each video's CID and stream are looked up when it plays.
+     */
+    private AudioItem loadBilibiliPlaylist(String url) throws Exception {
+        BilibiliPlaylistInfo playlistInfo;
+        Matcher matcher;
+        if ((matcher = BilibiliConstants.FAVORITES_URL_PATTERN.matcher(url)).find()) {
+            playlistInfo = apiClient.getFavorites(matcher.group(1));
+        } else if ((matcher = BilibiliConstants.COLLECTION_URL_PATTERN.matcher(url)).find()) {
+            playlistInfo = apiClient.getCollection(matcher.group(1), matcher.group(2) != null ? matcher.group(2) : matcher.group(3));
+        } else if ((matcher = BilibiliConstants.SERIES_URL_PATTERN.matcher(url)).find()) {
+            playlistInfo = apiClient.getSeries(matcher.group(1), matcher.group(2) != null ? matcher.group(2) : matcher.group(3));
+        } else {
+            return null;
+        }
+        
+        if (playlistInfo.getEntries().isEmpty()) {
+            return AudioReference.NO_TRACK;
+        }
+        
+        List<AudioTrack> tracks = new ArrayList<>();
+        for (BilibiliPlaylistInfo.Entry entry : playlistInfo.getEntries()) {
+            String videoUrl = BilibiliUtil.buildVideoUrl(entry.getVideoId(), 0);
+            AudioTrackInfo trackInfo = new AudioTrackInfo(entry.getTitle(), entry.getAuthor(), entry.getDurationMs(), videoUrl, false, videoUrl);
+            tracks.add(new BilibiliAudioTrack(trackInfo, this));
+        }
+        return new BasicAudioPlaylist(playlistInfo.getTitle(), tracks, null, false);
+    }
+    
     /**
      * Package-private method for tracks to access the API client
      */
@@ -131,6 +202,42 @@ public class BilibiliAudioSourceManager implements AudioSourceManager, HttpConfi
         return httpManager;
     }
     
+    /**
+     * Returns the connection pool of Bilibili API calls
+     */
+    public BilibiliConnectionPool getConnectionPool() {
+        return httpManager.getConnectionPool();
+    }
+    
+    /**
+     * Returns the connection pool of Bilibili streams
+     */
+    public BilibiliConnectionPool getStreamConnectionPool() {
+        return httpManager.getStreamConnectionPool();
+    }
+    
+    void recordMirrorFailover() {
+        mirrorFailovers.incrementAndGet();
+    }
+    
+    void recordUrlRefresh() {
+        urlRefreshes.incrementAndGet();
+    }
+    
+    /**
+     * Returns how many times a stream moved on to another CDN mirror
+     */
+    public long getMirrorFailovers() {
+        return mirrorFailovers.get();
+    }
+    
+    /**
+     * Returns how many times a stream got fresh signed URLs, such as after they expired mid-playback
+     */
+    public long getUrlRefreshes() {
+        return urlRefreshes.get();
+    }
+    
     @Override
     public boolean isTrackEncodable(AudioTrack track) {
         return track instanceof BilibiliAudioTrack;
@@ -138,14 +245,14 @@ public class BilibiliAudioSourceManager implements AudioSourceManager, HttpConfi
     
     @Override
     public void encodeTrack(AudioTrack track, DataOutput output) throws IOException {
-        // Implementation for encoding track state for serialization
-        // This is used when saving/loading playlists
+        // The CID lets a decoded track go straight to the player API
+        output.writeLong(((BilibiliAudioTrack) track).getCid());
     }
     
     @Override
     public AudioTrack decodeTrack(AudioTrackInfo trackInfo, DataInput input) throws IOException {
-        // Implementation for decoding track state from serialization
-        return new BilibiliAudioTrack(trackInfo, this);
+        // Tracks encoded before the CID was written fail to decode here and are simply loaded again
+        return new BilibiliAudioTrack(trackInfo, this, input.readLong());
     }
     
     @Override
@@ -164,6 +271,7 @@ public class BilibiliAudioSourceManager implements AudioSourceManager, HttpConfi
     public void configureRequests(Function<RequestConfig, RequestConfig> configurator) {
         if (httpManager != null && httpManager.getHttpInterfaceManager() != null) {
             httpManager.getHttpInterfaceManager().configureRequests(configurator);
+            httpManager.getStreamInterfaceManager().configureRequests(configurator);
         }
     }
     
@@ -171,6 +279,7 @@ public class BilibiliAudioSourceManager implements AudioSourceManager, HttpConfi
     public void configureBuilder(Consumer<HttpClientBuilder> configurator) {
         if (httpManager != null && httpManager.getHttpInterfaceManager() != null) {
             httpManager.getHttpInterfaceManager().configureBuilder(configurator);
+            httpManager.getStreamInterfaceManager().configureBuilder(configurator);
         }
     }
 }
\ No newline at end of file
@@ -8,6 +8,8 @@ import com.sedmelluq.discord.lavaplayer.track.playback.LocalAudioTrackExecutor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.IOException;
+
 /**
  * Clean, refactored Bilibili audio track implementation
  */
@@ -16,6 +18,7 @@ public class BilibiliAudioTrack extends DelegatedAudioTrack {
     
     private final BilibiliAudioSourceManager sourceManager;
     private final long cid;
+    private volatile long resolvedCid;
     
     public BilibiliAudioTrack(AudioTrackInfo trackInfo, BilibiliAudioSourceManager sourceManager) {
         this(trackInfo, sourceManager, 0);
@@ -32,8 +35,8 @@ public class BilibiliAudioTrack extends DelegatedAudioTrack {
         log.info("Starting to process Bilibili track: {}", getInfo().title);
         
         try {
-            String streamUrl = getStreamUrl();
-            if (streamUrl == null) {
+            BilibiliStreamInfo streamInfo = getStreamInfo();
+            if (streamInfo == null) {
                 throw new IllegalStateException("Could not get stream URL for Bilibili track");
             }
             
@@ -44,42 +47,45 @@ public class BilibiliAudioTrack extends DelegatedAudioTrack {
                 getInfo().title,
                 getInfo().author,
                 getInfo().length,
-                streamUrl,
+                streamInfo.getStreamUrl(),
                 getInfo().isStream,
-                streamUrl
+                streamInfo.getStreamUrl()
             );
             
             // Create authenticated HTTP track that uses our source manager's HTTP interface
             BilibiliAuthenticatedHttpTrack httpTrack = new BilibiliAuthenticatedHttpTrack(
-                httpTrackInfo, sourceManager, streamUrl);
+                httpTrackInfo, sourceManager, streamInfo, this::refreshStreamInfo);
             
             log.info("Successfully created authenticated HTTP track, starting playback");
             processDelegate((com.sedmelluq.discord.lavaplayer.track.InternalAudioTrack) httpTrack, localExecutor);
             
         } catch (Exception e) {
             log.error("Error processing Bilibili audio track: {}", getInfo().identifier, e);
+            invalidateStreamUrl();
             throw e;
         }
     }
     
-    private String getStreamUrl() throws Exception {
-        if (cid <= 0) {
-            log.error("No CID available for stream URL extraction");
-            return null;
-        }
-        
+    private BilibiliStreamInfo getStreamInfo() throws Exception {
         String videoId = BilibiliUtil.extractVideoId(getInfo().identifier);
         if (videoId == null) {
             log.error("Could not extract video ID from: {}", getInfo().identifier);
             return null;
         }
         
+        // Tracks created without a CID look it up from the (usually cached) video info
+        long cid = this.cid > 0 ? this.cid : lookUpCid(videoId);
+        resolvedCid = cid;
+        if (cid <= 0) {
+            log.error("No CID available for stream URL extraction");
+            return null;
+        }
+        
         try {
             BilibiliStreamInfo streamInfo = sourceManager.getApiClient().getStreamInfo(videoId, cid);
-            String streamUrl = streamInfo.getStreamUrl();
             
             log.info("Successfully extracted stream URL (format: {})", streamInfo.getFormat());
-            return streamUrl;
+            return streamInfo;
             
         } catch (Exception e) {
             log.error("Error getting stream URL for video ID: {} with CID: {}", videoId, cid, e);
@@ -87,6 +93,28 @@ public class BilibiliAudioTrack extends DelegatedAudioTrack {
         }
     }
     
+    private long lookUpCid(String videoId) throws Exception {
+        BilibiliVideoInfo videoInfo = sourceManager.getApiClient().getVideoInfo(videoId);
+        BilibiliVideoInfo.Page page = videoInfo.getPage(BilibiliUtil.extractPage(getInfo().identifier));
+        return page != null ? page.getCid() : videoInfo.getCid();
+    }
+    
+    /**
+     * Replaces the cached stream info with a fresh one, whose signed URLs are valid again
+     */
+    private BilibiliStreamInfo refreshStreamInfo() throws IOException {
+        String videoId = BilibiliUtil.extractVideoId(getInfo().identifier);
+        sourceManager.getApiClient().invalidateStreamInfo(videoId, resolvedCid);
+        return sourceManager.getApiClient().getStreamInfo(videoId, resolvedCid);
+    }
+    
+    private void invalidateStreamUrl() {
+        String videoId = BilibiliUtil.extractVideoId(getInfo().identifier);
+        if (videoId != null && resolvedCid > 0) {
+            sourceManager.getApiClient().invalidateStreamInfo(videoId, resolvedCid);
+        }
+    }
+    
     @Override
     protected AudioTrack makeShallowClone() {
         return new BilibiliAudioTrack(getInfo(), sourceManager, cid);
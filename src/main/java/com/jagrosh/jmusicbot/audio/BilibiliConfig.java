@@ -10,15 +10,30 @@ public class BilibiliConfig {
     private final String origin;
     private final String sessdata;
     private final int maxBitrateKbps;
+    private final int maxConnections;
+    private final int maxConnectionsPerRoute;
+    private final int idleTimeoutSeconds;
     
     public BilibiliConfig(boolean enabled, String userAgent, String referer, String origin, 
                          String sessdata, int maxBitrateKbps) {
+        this(enabled, userAgent, referer, origin, sessdata, maxBitrateKbps,
+            BilibiliConstants.DEFAULT_MAX_CONNECTIONS,
+            BilibiliConstants.DEFAULT_MAX_CONNECTIONS_PER_ROUTE,
+            BilibiliConstants.DEFAULT_IDLE_TIMEOUT_SECONDS);
+    }
+    
+    public BilibiliConfig(boolean enabled, String userAgent, String referer, String origin, 
+                         String sessdata, int maxBitrateKbps, int maxConnections,
+                         int maxConnectionsPerRoute, int idleTimeoutSeconds) {
         this.enabled = enabled;
         this.userAgent = userAgent;
         this.referer = referer;
         this.origin = origin;
         this.sessdata = sessdata != null ? sessdata : "";
         this.maxBitrateKbps = maxBitrateKbps;
+        this.maxConnections = Math.max(1, maxConnections);
+        this.maxConnectionsPerRoute = Math.max(1, Math.min(maxConnectionsPerRoute, this.maxConnections));
+        this.idleTimeoutSeconds = Math.max(1, idleTimeoutSeconds);
     }
     
     public boolean isEnabled() {
@@ -49,6 +64,18 @@ public class BilibiliConfig {
         return maxBitrateKbps;
     }
     
+    public int getMaxConnections() {
+        return maxConnections;
+    }
+    
+    public int getMaxConnectionsPerRoute() {
+        return maxConnectionsPerRoute;
+    }
+    
+    public int getIdleTimeoutSeconds() {
+        return idleTimeoutSeconds;
+    }
+    
     @Override
     public String toString() {
         return "BilibiliConfig{" +
@@ -58,6 +85,9 @@ public class BilibiliConfig {
                 ", origin='" + origin + '\'' +
                 ", sessdata='" + BilibiliUtil.maskSensitiveData(sessdata) + '\'' +
                 ", maxBitrateKbps=" + maxBitrateKbps +
+                ", maxConnections=" + maxConnections +
+                ", maxConnectionsPerRoute=" + maxConnectionsPerRoute +
+                ", idleTimeoutSeconds=" + idleTimeoutSeconds +
                 '}';
     }
 }
\ No newline at end of file
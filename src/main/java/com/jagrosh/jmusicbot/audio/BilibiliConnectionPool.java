@@ -0,0 +1,103 @@
+package com.jagrosh.jmusicbot.audio;
+
+import org.apache.http.HttpClientConnection;
+import org.apache.http.conn.ConnectionKeepAliveStrategy;
+import org.apache.http.conn.ConnectionRequest;
+import org.apache.http.conn.routing.HttpRoute;
+import org.apache.http.impl.client.DefaultConnectionKeepAliveStrategy;
+import org.apache.http.impl.client.IdleConnectionEvictor;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.apache.http.pool.PoolStats;
+import org.apache.http.protocol.HttpContext;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Connection pool for Bilibili requests, so connections to api.bilibili.com and the
+ * CDN hosts are kept alive and reused instead of being opened (and TLS handshaken)
+ * for every request. API calls and streams each have their own pool, so playing
+ * tracks, which hold a connection for as long as they play, can't starve API calls.
+ * Counts how often a connection is leased and how often a lease had to open a new
+ * connection.
+ */
+public class BilibiliConnectionPool extends PoolingHttpClientConnectionManager {
+    private final AtomicLong leases = new AtomicLong();
+    private final AtomicLong connects = new AtomicLong();
+    private volatile long idleTimeoutMs;
+    private IdleConnectionEvictor evictor;
+    
+    public BilibiliConnectionPool(int maxConnections, int maxConnectionsPerRoute, int idleTimeoutSeconds) {
+        setValidateAfterInactivity(BilibiliConstants.POOL_VALIDATE_AFTER_INACTIVITY_MS);
+        configure(maxConnections, maxConnectionsPerRoute, idleTimeoutSeconds);
+    }
+    
+    /**
+     * Applies new pool limits and idle timeout; open connections are kept
+     */
+    public synchronized void configure(int maxConnections, int maxConnectionsPerRoute, int idleTimeoutSeconds) {
+        setMaxTotal(maxConnections);
+        setDefaultMaxPerRoute(maxConnectionsPerRoute);
+        idleTimeoutMs = TimeUnit.SECONDS.toMillis(idleTimeoutSeconds);
+        
+        if (evictor != null) {
+            evictor.shutdown();
+        }
+        evictor = new IdleConnectionEvictor(this, idleTimeoutMs, TimeUnit.MILLISECONDS);
+        evictor.start();
+    }
+    
+    /**
+     * Keeps connections alive for as long as the server allows, but no longer than
+     * the idle timeout, after which they would be evicted anyway
+     */
+    public ConnectionKeepAliveStrategy getKeepAliveStrategy() {
+        return (response, context) -> {
+            long duration = DefaultConnectionKeepAliveStrategy.INSTANCE.getKeepAliveDuration(response, context);
+            return duration > 0 ? Math.min(duration, idleTimeoutMs) : idleTimeoutMs;
+        };
+    }
+    
+    @Override
+    public ConnectionRequest requestConnection(HttpRoute route, Object state) {
+        leases.incrementAndGet();
+        return super.requestConnection(route, state);
+    }
+    
+    @Override
+    public void connect(HttpClientConnection managedConn, HttpRoute route, int connectTimeout, HttpContext context) throws IOException {
+        // only called when the leased connection isn't open yet
+        connects.incrementAndGet();
+        super.connect(managedConn, route, connectTimeout, context);
+    }
+    
+    public long getLeases() {
+        return leases.get();
+    }
+    
+    public long getConnects() {
+        return connects.get();
+    }
+    
+    /**
+     * Returns the share of leases that reused an open connection
+     */
+    public double getReuseRatio() {
+        long leased = leases.get();
+        return leased == 0 ? 0 : Math.max(0, leased - connects.get()) / (double) leased;
+    }
+    
+    public PoolStats getStats() {
+        return getTotalStats();
+    }
+    
+    @Override
+    public synchronized void shutdown() {
+        if (evictor != null) {
+            evictor.shutdown();
+            evictor = null;
+        }
+        super.shutdown();
+    }
+}
@@ -8,11 +8,27 @@ public final class BilibiliConstants {
     public static final Pattern BILIBILI_URL_PATTERN = Pattern.compile(
         "^https?://(?:www\\.|m\\.)?bilibili\\.com/video/(BV[A-Za-z0-9]+|av\\d+)"
     );
+    public static final Pattern PAGE_PARAM_PATTERN = Pattern.compile("[?&]p=(\\d+)");
+    public static final Pattern FAVORITES_URL_PATTERN = Pattern.compile(
+        "^https?://(?:space\\.bilibili\\.com/\\d+/favlist\\?(?:.*&)?fid=|(?:www\\.)?bilibili\\.com/medialist/(?:detail|play)/ml)(\\d+)"
+    );
+    public static final Pattern COLLECTION_URL_PATTERN = Pattern.compile(
+        "^https?://space\\.bilibili\\.com/(\\d+)/(?:channel/collectiondetail\\?(?:.*&)?sid=(\\d+)|lists/(\\d+)(?!\\d)(?!.*type=series))"
+    );
+    public static final Pattern SERIES_URL_PATTERN = Pattern.compile(
+        "^https?://space\\.bilibili\\.com/(\\d+)/(?:channel/seriesdetail\\?(?:.*&)?sid=(\\d+)|lists/(\\d+)\\?(?:.*&)?type=series)"
+    );
     
     // API URLs
     public static final String API_BASE_URL = "https://api.bilibili.com";
     public static final String VIDEO_INFO_URL = API_BASE_URL + "/x/web-interface/view";
     public static final String PLAYER_URL = API_BASE_URL + "/x/player/playurl";
+    public static final String FAVORITES_URL = API_BASE_URL + "/x/v3/fav/resource/list";
+    public static final String COLLECTION_URL = API_BASE_URL + "/x/polymer/web-space/seasons_archives_list";
+    public static final String SERIES_URL = API_BASE_URL + "/x/series/archives";
+    public static final String SERIES_INFO_URL = API_BASE_URL + "/x/series/series";
+    public static final String USER_CARD_URL = API_BASE_URL + "/x/web-interface/card";
+    public static final String VIDEO_URL = "https://www.bilibili.com/video/";
     
     // HTTP Headers
     public static final String HEADER_USER_AGENT = "User-Agent";
@@ -37,13 +53,43 @@ public final class BilibiliConstants {
     public static final String PARAM_QN = "qn";
     public static final String PARAM_FNVAL = "fnval";
     public static final String PARAM_FOURK = "fourk";
+    public static final String PARAM_PAGE = "p";
     
     // Default Values
-    public static final int DEFAULT_QUALITY = 80; // 1080P
-    public static final int DEFAULT_FNVAL = 4048; // DASH format with authentication
-    public static final int DEFAULT_FOURK = 1; // Enable 4K support
+    public static final int DEFAULT_QUALITY = 16; // 360P; only audio is played, and this keeps the FLV fallback small
+    public static final int DEFAULT_FNVAL = 16; // DASH format, without the HDR, 4K, 8K, Dolby and AV1 variants
+    public static final int DEFAULT_FOURK = 0;
+    public static final String CODEC_AAC = "mp4a";
+    public static final String CODEC_OPUS = "opus";
     public static final int DEFAULT_TIMEOUT_MS = 10000;
     
+    // Playlists
+    public static final int FAVORITES_PAGE_SIZE = 20; // the most the favorites API returns at once
+    public static final int COLLECTION_PAGE_SIZE = 100;
+    public static final int MAX_PLAYLIST_ENTRIES = 1000;
+    public static final int FAVORITES_VIDEO_TYPE = 2;
+    
+    // Caching
+    public static final int VIDEO_INFO_CACHE_SIZE = 1000;
+    public static final long VIDEO_INFO_CACHE_TTL_MS = 60 * 60 * 1000; // titles and parts rarely change
+    public static final int STREAM_INFO_CACHE_SIZE = 500;
+    public static final long STREAM_INFO_CACHE_TTL_MS = 10 * 60 * 1000;
+    public static final long STREAM_URL_EXPIRY_MARGIN_MS = 60 * 1000; // stop using a signed URL this long before it expires
+    public static final String PARAM_DEADLINE = "deadline";
+    
+    // Connection pools
+    public static final int DEFAULT_MAX_CONNECTIONS = 20; // API calls, which only hold a connection briefly
+    public static final int DEFAULT_MAX_CONNECTIONS_PER_ROUTE = 8;
+    public static final int STREAM_MAX_CONNECTIONS = 1000; // every playing track holds one for as long as it plays
+    public static final int DEFAULT_IDLE_TIMEOUT_SECONDS = 30;
+    public static final int POOL_VALIDATE_AFTER_INACTIVITY_MS = 2000;
+    
+    // Playback
+    public static final int CONTAINER_HEAD_SIZE = 1024; // bytes kept from the start of a stream for container detection
+    public static final int STREAM_CONNECT_TIMEOUT_MS = 3000; // a mirror this slow to connect is skipped
+    public static final int STREAM_READ_TIMEOUT_MS = 5000; // a mirror this slow to send data is left for the next
+    public static final long STREAM_MAX_SKIP_DISTANCE = 512 * 1024; // seeks further ahead than this reconnect instead of reading
+    
     // Source name
     public static final String SOURCE_NAME = "bilibili";
     
@@ -1,6 +1,7 @@
 package com.jagrosh.jmusicbot.audio;
 
 import com.sedmelluq.discord.lavaplayer.tools.io.HttpInterfaceManager;
+import com.sedmelluq.discord.lavaplayer.tools.io.SimpleHttpInterfaceManager;
 import org.apache.http.Header;
 import org.apache.http.client.config.RequestConfig;
 import org.apache.http.impl.client.HttpClientBuilder;
@@ -14,35 +15,53 @@ import java.util.ArrayList;
 import java.util.List;
 
 /**
- * Manages HTTP client configuration for Bilibili API requests
+ * Manages HTTP client configuration for Bilibili API requests and streams. API
+ * requests and streams use separate connection pools, and streams use short
+ * timeouts so a slow mirror is left for the next one instead of stalling playback.
  */
 public class BilibiliHttpManager implements Closeable {
     private static final Logger log = LoggerFactory.getLogger(BilibiliHttpManager.class);
     
+    private final BilibiliConnectionPool connectionPool;
+    private final BilibiliConnectionPool streamConnectionPool;
     private HttpInterfaceManager httpInterfaceManager;
-    private final BilibiliConfig config;
+    private HttpInterfaceManager streamInterfaceManager;
+    private BilibiliConfig config;
     
     public BilibiliHttpManager(BilibiliConfig config) {
         this.config = config;
-        this.httpInterfaceManager = createHttpInterfaceManager();
+        this.connectionPool = new BilibiliConnectionPool(config.getMaxConnections(),
+            config.getMaxConnectionsPerRoute(), config.getIdleTimeoutSeconds());
+        this.streamConnectionPool = new BilibiliConnectionPool(BilibiliConstants.STREAM_MAX_CONNECTIONS,
+            BilibiliConstants.STREAM_MAX_CONNECTIONS, config.getIdleTimeoutSeconds());
+        createHttpInterfaceManagers();
     }
     
-    private HttpInterfaceManager createHttpInterfaceManager() {
+    private void createHttpInterfaceManagers() {
+        httpInterfaceManager = createHttpInterfaceManager(connectionPool, RequestConfig.custom()
+            .setConnectTimeout(BilibiliConstants.DEFAULT_TIMEOUT_MS)
+            .setSocketTimeout(BilibiliConstants.DEFAULT_TIMEOUT_MS)
+            .setConnectionRequestTimeout(BilibiliConstants.DEFAULT_TIMEOUT_MS)
+            .build());
+        streamInterfaceManager = createHttpInterfaceManager(streamConnectionPool, RequestConfig.custom()
+            .setConnectTimeout(BilibiliConstants.STREAM_CONNECT_TIMEOUT_MS)
+            .setSocketTimeout(BilibiliConstants.STREAM_READ_TIMEOUT_MS)
+            .setConnectionRequestTimeout(BilibiliConstants.DEFAULT_TIMEOUT_MS)
+            .build());
+    }
+    
+    private HttpInterfaceManager createHttpInterfaceManager(BilibiliConnectionPool pool, RequestConfig requestConfig) {
         List<Header> headers = buildHeaders();
         
+        // The pool outlives the clients built on it, which are replaced whenever the configuration changes
         HttpClientBuilder clientBuilder = HttpClientBuilder.create()
+            .setConnectionManager(pool)
+            .setConnectionManagerShared(true)
+            .setKeepAliveStrategy(pool.getKeepAliveStrategy())
             .setDefaultHeaders(headers)
             .setUserAgent(config.getUserAgent());
             
-        RequestConfig requestConfig = RequestConfig.custom()
-            .setConnectTimeout(BilibiliConstants.DEFAULT_TIMEOUT_MS)
-            .setSocketTimeout(BilibiliConstants.DEFAULT_TIMEOUT_MS)
-            .setConnectionRequestTimeout(BilibiliConstants.DEFAULT_TIMEOUT_MS)
-            .build();
-            
-        return new com.sedmelluq.discord.lavaplayer.tools.io.ThreadLocalHttpInterfaceManager(
-            clientBuilder, requestConfig
-        );
+        return new SimpleHttpInterfaceManager(clientBuilder, requestConfig);
     }
     
     private List<Header> buildHeaders() {
@@ -68,20 +87,41 @@ public class BilibiliHttpManager implements Closeable {
         return headers;
     }
     
+    /**
+     * Returns the interface manager for API requests
+     */
     public HttpInterfaceManager getHttpInterfaceManager() {
         return httpInterfaceManager;
     }
     
+    /**
+     * Returns the interface manager for media streams
+     */
+    public HttpInterfaceManager getStreamInterfaceManager() {
+        return streamInterfaceManager;
+    }
+    
+    public BilibiliConfig getConfig() {
+        return config;
+    }
+    
+    public BilibiliConnectionPool getConnectionPool() {
+        return connectionPool;
+    }
+    
+    public BilibiliConnectionPool getStreamConnectionPool() {
+        return streamConnectionPool;
+    }
+    
     public void updateConfiguration(BilibiliConfig newConfig) {
-        try {
-            if (this.httpInterfaceManager != null) {
-                this.httpInterfaceManager.close();
-            }
-        } catch (IOException e) {
-            log.warn("Error closing old HTTP interface manager", e);
-        }
+        this.config = newConfig;
+        connectionPool.configure(newConfig.getMaxConnections(), newConfig.getMaxConnectionsPerRoute(),
+            newConfig.getIdleTimeoutSeconds());
+        streamConnectionPool.configure(BilibiliConstants.STREAM_MAX_CONNECTIONS,
+            BilibiliConstants.STREAM_MAX_CONNECTIONS, newConfig.getIdleTimeoutSeconds());
         
-        this.httpInterfaceManager = createHttpInterfaceManager();
+        closeHttpInterfaceManagers();
+        createHttpInterfaceManagers();
         
         // Log configuration status (without revealing full SESSDATA)
         boolean hasAuth = newConfig.hasSessdata();
@@ -91,10 +131,25 @@ public class BilibiliHttpManager implements Closeable {
         }
     }
     
+    private void closeHttpInterfaceManagers() {
+        for (HttpInterfaceManager manager : new HttpInterfaceManager[] {httpInterfaceManager, streamInterfaceManager}) {
+            try {
+                if (manager != null) {
+                    manager.close();
+                }
+            } catch (IOException e) {
+                log.warn("Error closing old HTTP interface manager", e);
+            }
+        }
+    }
+    
     @Override
     public void close() throws IOException {
-        if (httpInterfaceManager != null) {
-            httpInterfaceManager.close();
+        try {
+            closeHttpInterfaceManagers();
+        } finally {
+            connectionPool.shutdown();
+            streamConnectionPool.shutdown();
         }
     }
 }
\ No newline at end of file
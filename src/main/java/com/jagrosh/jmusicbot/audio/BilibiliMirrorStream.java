@@ -0,0 +1,265 @@
+package com.jagrosh.jmusicbot.audio;
+
+import com.sedmelluq.discord.lavaplayer.tools.Units;
+import com.sedmelluq.discord.lavaplayer.tools.io.HttpClientTools;
+import com.sedmelluq.discord.lavaplayer.tools.io.HttpInterface;
+import com.sedmelluq.discord.lavaplayer.tools.io.PersistentHttpStream;
+import com.sedmelluq.discord.lavaplayer.tools.io.SeekableInputStream;
+import com.sedmelluq.discord.lavaplayer.track.info.AudioTrackInfoProvider;
+import org.apache.http.HttpResponse;
+import org.apache.http.conn.ConnectTimeoutException;
+import org.apache.http.conn.ConnectionPoolTimeoutException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.net.ConnectException;
+import java.net.SocketTimeoutException;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.net.UnknownHostException;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Stream of a Bilibili media file that survives failing CDN mirrors and expiring URLs.
+ * When a connection can't be made, breaks or times out, it carries on from the same
+ * position on the next mirror. When every mirror has failed, or the signed URLs have
+ * expired, it asks for fresh URLs and carries on from those. Interrupts, such as when
+ * lavaplayer stops or seeks the track, and other errors are passed on as they are.
+ */
+public class BilibiliMirrorStream extends SeekableInputStream {
+    private static final Logger log = LoggerFactory.getLogger(BilibiliMirrorStream.class);
+    
+    /**
+     * Gets fresh stream URLs, such as after the current ones expired
+     */
+    public interface Refresher {
+        BilibiliStreamInfo refresh() throws IOException;
+    }
+    
+    /**
+     * Creates the stream of one mirror, which connects when it is first used
+     */
+    public interface Connector {
+        PersistentHttpStream connect(URI url, long contentLength);
+    }
+    
+    private final Connector connector;
+    private final BilibiliAudioSourceManager sourceManager;
+    private final Refresher refresher;
+    private BilibiliStreamInfo streamInfo;
+    private PersistentHttpStream current;
+    private int mirror = -1;
+    
+    public BilibiliMirrorStream(HttpInterface httpInterface, BilibiliStreamInfo streamInfo,
+                                BilibiliAudioSourceManager sourceManager, Refresher refresher) throws IOException {
+        this(streamInfo, sourceManager, refresher,
+            (url, contentLength) -> new PersistentHttpStream(httpInterface, url, contentLength));
+    }
+    
+    public BilibiliMirrorStream(BilibiliStreamInfo streamInfo, BilibiliAudioSourceManager sourceManager,
+                                Refresher refresher, Connector connector) throws IOException {
+        super(Units.CONTENT_LENGTH_UNKNOWN, BilibiliConstants.STREAM_MAX_SKIP_DISTANCE);
+        this.connector = connector;
+        this.streamInfo = streamInfo;
+        this.sourceManager = sourceManager;
+        this.refresher = refresher;
+        reconnect(0, null);
+    }
+    
+    /**
+     * Returns the response of the current connection
+     */
+    public HttpResponse getCurrentResponse() {
+        return current.getCurrentResponse();
+    }
+    
+    @Override
+    public int read() throws IOException {
+        try {
+            return current.read();
+        } catch (IOException e) {
+            reconnect(current.getPosition(), checkMirrorFailure(e));
+            return current.read();
+        }
+    }
+    
+    @Override
+    public int read(byte[] buffer, int offset, int length) throws IOException {
+        try {
+            return current.read(buffer, offset, length);
+        } catch (IOException e) {
+            reconnect(current.getPosition(), checkMirrorFailure(e));
+            return current.read(buffer, offset, length);
+        }
+    }
+    
+    @Override
+    public long skip(long distance) throws IOException {
+        try {
+            return current.skip(distance);
+        } catch (IOException e) {
+            reconnect(current.getPosition(), checkMirrorFailure(e));
+            return current.skip(distance);
+        }
+    }
+    
+    @Override
+    public int available() throws IOException {
+        return current.available();
+    }
+    
+    @Override
+    public long getPosition() {
+        return current.getPosition();
+    }
+    
+    @Override
+    protected void seekHard(long position) throws IOException {
+        // A seek opens a new connection, which an expired URL would only have refused
+        if (isExpired()) {
+            refresh(position, null);
+        } else {
+            current.seek(position);
+        }
+    }
+    
+    @Override
+    public boolean canSeekHard() {
+        return true;
+    }
+    
+    @Override
+    public List<AudioTrackInfoProvider> getTrackInfoProviders() {
+        return Collections.emptyList();
+    }
+    
+    @Override
+    public void close() throws IOException {
+        if (current != null) {
+            current.close();
+        }
+    }
+    
+    private boolean isExpired() {
+        long expiresAt = streamInfo.getExpiresAt();
+        return expiresAt > 0 && System.currentTimeMillis() >= expiresAt - BilibiliConstants.STREAM_URL_EXPIRY_MARGIN_MS;
+    }
+    
+    /**
+     * Returns an error of the current connection if the next mirror might do better,
+     * and rethrows it otherwise
+     */
+    private IOException checkMirrorFailure(IOException e) throws IOException {
+        if (!isInterrupt(e) && (isNetworkFailure(e) || hasBadStatus(current))) {
+            return e;
+        }
+        throw e;
+    }
+    
+    /**
+     * Returns whether an error comes from the playing thread being interrupted. Timeouts
+     * are interrupted I/O errors too, but they are the mirror's fault.
+     */
+    private static boolean isInterrupt(IOException e) {
+        return Thread.currentThread().isInterrupted() || (e instanceof InterruptedIOException
+            && !(e instanceof SocketTimeoutException) && !(e instanceof ConnectTimeoutException));
+    }
+    
+    /**
+     * Returns whether an error means a mirror could not be reached or dropped the connection.
+     * Waiting too long for a free pooled connection is a timeout too, but no mirror's fault.
+     */
+    private static boolean isNetworkFailure(IOException e) {
+        if (e instanceof ConnectionPoolTimeoutException) {
+            return false;
+        }
+        return HttpClientTools.isRetriableNetworkException(e) || e instanceof SocketTimeoutException
+            || e instanceof ConnectTimeoutException || e instanceof ConnectException || e instanceof UnknownHostException;
+    }
+    
+    private static boolean hasBadStatus(PersistentHttpStream stream) {
+        HttpResponse response = stream.getCurrentResponse();
+        return response != null && !HttpClientTools.isSuccessWithContent(response.getStatusLine().getStatusCode());
+    }
+    
+    /**
+     * Carries on from a position on the next mirror, or on fresh URLs if there is no mirror left
+     */
+    private void reconnect(long position, IOException cause) throws IOException {
+        close();
+        if (!isExpired()) {
+            for (int next = mirror + 1; next < streamInfo.getStreamUrls().size(); next++) {
+                if (open(next, position)) {
+                    // at the start, moving past the first mirror is a failover too
+                    if (cause != null || next > 0) {
+                        sourceManager.recordMirrorFailover();
+                        log.info("Bilibili stream failed over to mirror {} at byte {}", 
+                            BilibiliUtil.extractHost(streamInfo.getStreamUrls().get(next)), position);
+                    }
+                    return;
+                }
+            }
+        }
+        refresh(position, cause);
+    }
+    
+    private void refresh(long position, IOException cause) throws IOException {
+        close();
+        streamInfo = refresher.refresh();
+        sourceManager.recordUrlRefresh();
+        log.info("Refreshed Bilibili stream URLs at byte {}", position);
+        
+        for (int next = 0; next < streamInfo.getStreamUrls().size(); next++) {
+            if (open(next, position)) {
+                return;
+            }
+        }
+        throw new IOException("No Bilibili stream mirror could be reached", cause);
+    }
+    
+    private boolean open(int index, long position) throws IOException {
+        String url = streamInfo.getStreamUrls().get(index);
+        PersistentHttpStream stream;
+        try {
+            stream = connector.connect(new URI(url), contentLength);
+        } catch (URISyntaxException e) {
+            log.warn("Invalid Bilibili stream mirror URL {}: {}", url, e.getMessage());
+            return false;
+        }
+        
+        try {
+            if (position > 0) {
+                stream.seek(position);
+            }
+            
+            int statusCode = stream.checkStatusCode();
+            if (HttpClientTools.isSuccessWithContent(statusCode)) {
+                current = stream;
+                mirror = index;
+                contentLength = stream.getContentLength();
+                return true;
+            }
+            log.warn("Bilibili stream mirror {} returned status {}", BilibiliUtil.extractHost(url), statusCode);
+        } catch (IOException e) {
+            if (isInterrupt(e) || !isNetworkFailure(e)) {
+                closeQuietly(stream);
+                throw e;
+            }
+            log.warn("Could not connect to Bilibili stream mirror {}: {}", BilibiliUtil.extractHost(url), e.getMessage());
+        }
+        
+        closeQuietly(stream);
+        return false;
+    }
+    
+    private static void closeQuietly(PersistentHttpStream stream) {
+        try {
+            stream.close();
+        } catch (IOException e) {
+            log.debug("Error closing Bilibili stream", e);
+        }
+    }
+}
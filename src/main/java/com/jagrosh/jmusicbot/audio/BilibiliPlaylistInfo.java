@@ -0,0 +1,68 @@
+package com.jagrosh.jmusicbot.audio;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Represents a favorites list, collection or series retrieved from Bilibili API.
+ * Entries only carry what the list API returns; their CIDs and stream URLs are
+ * looked up when they are played.
+ */
+public class BilibiliPlaylistInfo {
+    private final String title;
+    private final List<Entry> entries;
+    
+    public BilibiliPlaylistInfo(String title, List<Entry> entries) {
+        this.title = title;
+        this.entries = Collections.unmodifiableList(entries);
+    }
+    
+    public String getTitle() {
+        return title;
+    }
+    
+    public List<Entry> getEntries() {
+        return entries;
+    }
+    
+    @Override
+    public String toString() {
+        return "BilibiliPlaylistInfo{" +
+                "title='" + title + '\'' +
+                ", entries=" + entries.size() +
+                '}';
+    }
+    
+    /**
+     * One video of a list
+     */
+    public static class Entry {
+        private final String videoId;
+        private final String title;
+        private final String author;
+        private final long durationMs;
+        
+        public Entry(String videoId, String title, String author, long durationMs) {
+            this.videoId = videoId;
+            this.title = title;
+            this.author = author;
+            this.durationMs = durationMs;
+        }
+        
+        public String getVideoId() {
+            return videoId;
+        }
+        
+        public String getTitle() {
+            return title;
+        }
+        
+        public String getAuthor() {
+            return author;
+        }
+        
+        public long getDurationMs() {
+            return durationMs;
+        }
+    }
+}
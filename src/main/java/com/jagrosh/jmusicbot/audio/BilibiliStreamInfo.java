@@ -1,30 +1,74 @@
 package com.jagrosh.jmusicbot.audio;
 
+import java.util.Collections;
+import java.util.List;
+
 /**
  * Represents stream information retrieved from Bilibili player API
  */
 public class BilibiliStreamInfo {
-    private final String streamUrl;
+    private final List<String> streamUrls;
     private final String format;
+    private final int bandwidth;
+    private final long expiresAt;
     
     public BilibiliStreamInfo(String streamUrl, String format) {
-        this.streamUrl = streamUrl;
+        this(Collections.singletonList(streamUrl), format, 0);
+    }
+    
+    /**
+     * @param streamUrls the URL of the stream followed by its backup mirrors
+     * @param bandwidth the bandwidth of the stream in bits per second, or 0 if unknown
+     */
+    public BilibiliStreamInfo(List<String> streamUrls, String format, int bandwidth) {
+        this.streamUrls = Collections.unmodifiableList(streamUrls);
         this.format = format;
+        this.bandwidth = bandwidth;
+        
+        long earliest = 0;
+        for (String url : streamUrls) {
+            long deadline = BilibiliUtil.extractUrlDeadline(url);
+            if (deadline > 0 && (earliest == 0 || deadline < earliest)) {
+                earliest = deadline;
+            }
+        }
+        this.expiresAt = earliest;
     }
     
     public String getStreamUrl() {
-        return streamUrl;
+        return streamUrls.get(0);
+    }
+    
+    /**
+     * Returns the URL of the stream followed by its backup mirrors
+     */
+    public List<String> getStreamUrls() {
+        return streamUrls;
     }
     
     public String getFormat() {
         return format;
     }
     
+    public int getBandwidth() {
+        return bandwidth;
+    }
+    
+    /**
+     * Returns when the first of the signed stream URLs expires (in epoch milliseconds), or 0 if unknown
+     */
+    public long getExpiresAt() {
+        return expiresAt;
+    }
+    
     @Override
     public String toString() {
         return "BilibiliStreamInfo{" +
-                "streamUrl='" + streamUrl + '\'' +
+                "streamUrl='" + getStreamUrl() + '\'' +
+                ", mirrors=" + streamUrls.size() +
                 ", format='" + format + '\'' +
+                ", bandwidth=" + bandwidth +
+                ", expiresAt=" + expiresAt +
                 '}';
     }
-}
\ No newline at end of file
+}
@@ -3,6 +3,7 @@ package com.jagrosh.jmusicbot.audio;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.net.URI;
 import java.util.regex.Matcher;
 
 public final class BilibiliUtil {
@@ -48,6 +49,71 @@ public final class BilibiliUtil {
         return null;
     }
     
+    /**
+     * Extracts the part (分P) number from a Bilibili video URL, or 0 if it has none
+     */
+    public static int extractPage(String url) {
+        if (url == null || url.isEmpty()) {
+            return 0;
+        }
+        
+        Matcher matcher = BilibiliConstants.PAGE_PARAM_PATTERN.matcher(url);
+        if (matcher.find()) {
+            try {
+                return Integer.parseInt(matcher.group(1));
+            } catch (NumberFormatException e) {
+                log.debug("Invalid page number in URL: {}", url);
+            }
+        }
+        return 0;
+    }
+    
+    /**
+     * Builds the URL of a video, or of one of its parts if the page is above 0
+     */
+    public static String buildVideoUrl(String videoId, int page) {
+        String url = BilibiliConstants.VIDEO_URL + videoId;
+        return page > 0 ? url + "?" + BilibiliConstants.PARAM_PAGE + "=" + page : url;
+    }
+    
+    /**
+     * Builds API URL for getting one page of a favorites list
+     */
+    public static String buildFavoritesUrl(String mediaId, int page) {
+        return BilibiliConstants.FAVORITES_URL + "?media_id=" + mediaId + "&pn=" + page
+            + "&ps=" + BilibiliConstants.FAVORITES_PAGE_SIZE + "&platform=web";
+    }
+    
+    /**
+     * Builds API URL for getting one page of a collection (合集)
+     */
+    public static String buildCollectionUrl(String mid, String seasonId, int page) {
+        return BilibiliConstants.COLLECTION_URL + "?mid=" + mid + "&season_id=" + seasonId
+            + "&page_num=" + page + "&page_size=" + BilibiliConstants.COLLECTION_PAGE_SIZE;
+    }
+    
+    /**
+     * Builds API URL for getting one page of a series (系列)
+     */
+    public static String buildSeriesUrl(String mid, String seriesId, int page) {
+        return BilibiliConstants.SERIES_URL + "?mid=" + mid + "&series_id=" + seriesId
+            + "&pn=" + page + "&ps=" + BilibiliConstants.COLLECTION_PAGE_SIZE;
+    }
+    
+    /**
+     * Builds API URL for getting the name of a series
+     */
+    public static String buildSeriesInfoUrl(String seriesId) {
+        return BilibiliConstants.SERIES_INFO_URL + "?series_id=" + seriesId;
+    }
+    
+    /**
+     * Builds API URL for getting the name of an uploader
+     */
+    public static String buildUserCardUrl(String mid) {
+        return BilibiliConstants.USER_CARD_URL + "?mid=" + mid;
+    }
+    
     /**
      * Builds API URL for getting video information
      */
@@ -93,6 +159,45 @@ public final class BilibiliUtil {
         return url.toString();
     }
     
+    /**
+     * Reads the expiry time of a signed stream URL from its deadline parameter
+     * (in epoch seconds), returning it in epoch milliseconds, or 0 if absent
+     */
+    public static long extractUrlDeadline(String url) {
+        if (url == null) {
+            return 0;
+        }
+        
+        int query = url.indexOf('?');
+        if (query < 0) {
+            return 0;
+        }
+        
+        for (String param : url.substring(query + 1).split("&")) {
+            if (param.startsWith(BilibiliConstants.PARAM_DEADLINE + "=")) {
+                try {
+                    return Long.parseLong(param.substring(BilibiliConstants.PARAM_DEADLINE.length() + 1)) * 1000;
+                } catch (NumberFormatException e) {
+                    log.debug("Invalid deadline in stream URL: {}", param);
+                    return 0;
+                }
+            }
+        }
+        return 0;
+    }
+    
+    /**
+     * Returns the host of a URL for logging, without its signed query, or the URL itself if it has none
+     */
+    public static String extractHost(String url) {
+        try {
+            String host = URI.create(url).getHost();
+            return host != null ? host : url;
+        } catch (IllegalArgumentException e) {
+            return url;
+        }
+    }
+    
     /**
      * Masks sensitive data for logging (keeps first 8 characters)
      */
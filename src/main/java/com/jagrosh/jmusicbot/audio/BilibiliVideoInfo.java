@@ -1,5 +1,8 @@
 package com.jagrosh.jmusicbot.audio;
 
+import java.util.Collections;
+import java.util.List;
+
 /**
  * Represents video information retrieved from Bilibili API
  */
@@ -8,12 +11,18 @@ public class BilibiliVideoInfo {
     private final String author;
     private final long durationMs;
     private final long cid;
+    private final List<Page> pages;
     
     public BilibiliVideoInfo(String title, String author, long durationMs, long cid) {
+        this(title, author, durationMs, cid, Collections.emptyList());
+    }
+    
+    public BilibiliVideoInfo(String title, String author, long durationMs, long cid, List<Page> pages) {
         this.title = title;
         this.author = author;
         this.durationMs = durationMs;
         this.cid = cid;
+        this.pages = Collections.unmodifiableList(pages);
     }
     
     public String getTitle() {
@@ -32,6 +41,29 @@ public class BilibiliVideoInfo {
         return cid;
     }
     
+    /**
+     * Returns the parts (分P) of the video, in order
+     */
+    public List<Page> getPages() {
+        return pages;
+    }
+    
+    public boolean isMultiPart() {
+        return pages.size() > 1;
+    }
+    
+    /**
+     * Returns the part with the given number (starting at 1), or null if there is none
+     */
+    public Page getPage(int number) {
+        for (Page page : pages) {
+            if (page.getNumber() == number) {
+                return page;
+            }
+        }
+        return null;
+    }
+    
     @Override
     public String toString() {
         return "BilibiliVideoInfo{" +
@@ -39,6 +71,40 @@ public class BilibiliVideoInfo {
                 ", author='" + author + '\'' +
                 ", durationMs=" + durationMs +
                 ", cid=" + cid +
+                ", pages=" + pages.size() +
                 '}';
     }
-}
\ No newline at end of file
+    
+    /**
+     * One part of a multi-part video
+     */
+    public static class Page {
+        private final int number;
+        private final long cid;
+        private final String title;
+        private final long durationMs;
+        
+        public Page(int number, long cid, String title, long durationMs) {
+            this.number = number;
+            this.cid = cid;
+            this.title = title;
+            this.durationMs = durationMs;
+        }
+        
+        public int getNumber() {
+            return number;
+        }
+        
+        public long getCid() {
+            return cid;
+        }
+        
+        public String getTitle() {
+            return title;
+        }
+        
+        public long getDurationMs() {
+            return durationMs;
+        }
+    }
+}
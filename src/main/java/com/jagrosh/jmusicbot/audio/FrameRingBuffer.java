@@ -0,0 +1,139 @@
+/*
+ * Copyright 2026 John Grosh <john.a.grosh@gmail.com>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.jagrosh.jmusicbot.audio;
+
+import com.sedmelluq.discord.lavaplayer.format.StandardAudioDataFormats;
+import com.sedmelluq.discord.lavaplayer.track.playback.MutableAudioFrame;
+import java.nio.ByteBuffer;
+import java.util.function.Predicate;
+
+/**
+ * A fixed-size ring of Opus frames that one thread fills ahead of time and
+ * JDA's audio send thread drains, so short stalls in decoding or loading
+ * don't reach the listeners as gaps. Neither side ever blocks or locks:
+ * exactly one thread may call {@link #fill}, and exactly one thread may call
+ * {@link #poll}. Every slot is allocated up front.
+ *
+ * @author John Grosh (john.a.grosh@gmail.com)
+ */
+public class FrameRingBuffer
+{
+    private final MutableAudioFrame[] frames;
+    private final ByteBuffer[] buffers;
+    // head is only written by the consumer and tail only by the producer;
+    // slots in [head, tail) hold frames, and the slot at head stays in use
+    // by the consumer until its next poll
+    private volatile long head = 0;
+    private volatile long tail = 0;
+    private volatile boolean flushRequested = false;
+    private boolean holding = false;
+    private volatile long underruns = 0;
+
+    public FrameRingBuffer(int capacity)
+    {
+        this.frames = new MutableAudioFrame[capacity];
+        this.buffers = new ByteBuffer[capacity];
+        for(int i=0; i<capacity; i++)
+        {
+            buffers[i] = ByteBuffer.allocateDirect(StandardAudioDataFormats.DISCORD_OPUS.maximumChunkSize());
+            frames[i] = new MutableAudioFrame();
+            frames[i].setBuffer(buffers[i]);
+        }
+    }
+
+    /**
+     * Producer side: pulls frames until the ring is full or no frame is
+     * available
+     *
+     * @param source fills the given frame and returns true, or returns false
+     *               if no frame is available (such as AudioPlayer::provide)
+     * @return the number of frames added
+     */
+    public int fill(Predicate<MutableAudioFrame> source)
+    {
+        int added = 0;
+        long t = tail;
+        while(t - head < frames.length)
+        {
+            int slot = (int) (t % frames.length);
+            buffers[slot].clear();
+            if(!source.test(frames[slot]))
+                break;
+            tail = ++t;
+            added++;
+        }
+        return added;
+    }
+
+    /**
+     * Consumer side: takes the next frame. The returned buffer may be read
+     * until the next call to this method.
+     *
+     * @param expected whether a frame was expected; if so, an empty ring
+     *                 counts as an underrun
+     * @return the frame's data, or null if no frame is ready
+     */
+    public ByteBuffer poll(boolean expected)
+    {
+        long h = head;
+        if(holding)
+        {
+            holding = false;
+            h++;
+        }
+        if(flushRequested)
+        {
+            flushRequested = false;
+            h = tail;
+        }
+        head = h;
+        if(h == tail)
+        {
+            if(expected)
+                underruns++;
+            return null;
+        }
+        holding = true;
+        return buffers[(int) (h % buffers.length)].flip();
+    }
+
+    /**
+     * Drops every buffered frame on the consumer's next poll; may be called
+     * from any thread, such as when the track changes
+     */
+    public void flush()
+    {
+        flushRequested = true;
+    }
+
+    public int size()
+    {
+        return (int) (tail - head);
+    }
+
+    public int getCapacity()
+    {
+        return frames.length;
+    }
+
+    /**
+     * @return how many times a frame was expected but none was buffered
+     */
+    public long getUnderruns()
+    {
+        return underruns;
+    }
+}
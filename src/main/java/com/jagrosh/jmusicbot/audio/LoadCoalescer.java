@@ -0,0 +1,221 @@
+/*
+ * Copyright 2026 John Grosh <john.a.grosh@gmail.com>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.jagrosh.jmusicbot.audio;
+
+import com.sedmelluq.discord.lavaplayer.player.AudioPlayerManager;
+import com.sedmelluq.discord.lavaplayer.source.AudioSourceManager;
+import com.sedmelluq.discord.lavaplayer.track.AudioItem;
+import com.sedmelluq.discord.lavaplayer.track.AudioPlaylist;
+import com.sedmelluq.discord.lavaplayer.track.AudioReference;
+import com.sedmelluq.discord.lavaplayer.track.AudioTrack;
+import com.sedmelluq.discord.lavaplayer.track.AudioTrackInfo;
+import com.sedmelluq.discord.lavaplayer.track.BasicAudioPlaylist;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Registered ahead of every other source manager, this makes loads of the
+ * same identifier that overlap share one lookup. The first load asks the
+ * other source managers as lavaplayer would; loads of the same identifier
+ * that start before it finishes wait for its result instead of looking it
+ * up again. Every load gets its own clones of the resulting tracks. Since
+ * this happens on the loader threads, results still reach each handler in
+ * the order its loads were queued.
+ *
+ * @author John Grosh (john.a.grosh@gmail.com)
+ */
+public class LoadCoalescer implements AudioSourceManager
+{
+    private final Supplier<List<AudioSourceManager>> sourceManagers;
+    private final Map<String, CompletableFuture<AudioItem>> inFlight = new ConcurrentHashMap<>();
+    private final AtomicLong leaders = new AtomicLong();
+    private final AtomicLong coalesced = new AtomicLong();
+
+    /**
+     * @param sourceManagers gives every registered source manager, in order
+     */
+    public LoadCoalescer(Supplier<List<AudioSourceManager>> sourceManagers)
+    {
+        this.sourceManagers = sourceManagers;
+    }
+
+    /**
+     * @param identifier an identifier being loaded
+     * @return the identifier, normalized so that loads which will find the
+     *         same thing share it
+     */
+    public static String key(String identifier)
+    {
+        String search = SearchCache.key(identifier);
+        return search != null ? search : identifier.trim();
+    }
+
+    @Override
+    public String getSourceName()
+    {
+        return "coalescer";
+    }
+
+    @Override
+    public AudioItem loadItem(AudioPlayerManager manager, AudioReference reference)
+    {
+        // references with a container hint are only offered to probing
+        // managers (their measured wrappers are probing managers too), and
+        // lavaplayer skips this one for them anyway as it isn't probing
+        if(reference.identifier == null || reference.containerDescriptor != null)
+            return null;
+        String key = key(reference.identifier);
+        CompletableFuture<AudioItem> own = new CompletableFuture<>();
+        CompletableFuture<AudioItem> existing = inFlight.putIfAbsent(key, own);
+        if(existing != null)
+        {
+            coalesced.incrementAndGet();
+            AudioItem item = await(existing);
+            AudioItem clone = copy(item);
+            // tracks that can't be cloned are looked up again
+            return clone != null ? clone : lookUp(manager, reference);
+        }
+        leaders.incrementAndGet();
+        try
+        {
+            AudioItem item = lookUp(manager, reference);
+            own.complete(item);
+            AudioItem clone = copy(item);
+            return clone != null ? clone : item;
+        }
+        catch(RuntimeException | Error ex)
+        {
+            own.completeExceptionally(ex);
+            throw ex;
+        }
+        finally
+        {
+            inFlight.remove(key, own);
+        }
+    }
+
+    // what lavaplayer does for a single reference, without this manager
+    private AudioItem lookUp(AudioPlayerManager manager, AudioReference reference)
+    {
+        for(AudioSourceManager sourceManager: sourceManagers.get())
+        {
+            if(sourceManager == this)
+                continue;
+            AudioItem item = sourceManager.loadItem(manager, reference);
+            if(item != null)
+                return item;
+        }
+        return AudioReference.NO_TRACK;
+    }
+
+    private static AudioItem await(CompletableFuture<AudioItem> future)
+    {
+        try
+        {
+            return future.get();
+        }
+        catch(ExecutionException ex)
+        {
+            if(ex.getCause() instanceof RuntimeException)
+                throw (RuntimeException) ex.getCause();
+            throw (Error) ex.getCause();
+        }
+        catch(InterruptedException ex)
+        {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for a load of the same item", ex);
+        }
+    }
+
+    // copies of the tracks in an item, so the original can be handed out
+    // again; null if they can't be cloned
+    private static AudioItem copy(AudioItem item)
+    {
+        try
+        {
+            if(item instanceof AudioTrack)
+                return ((AudioTrack) item).makeClone();
+            if(item instanceof AudioPlaylist)
+            {
+                AudioPlaylist playlist = (AudioPlaylist) item;
+                List<AudioTrack> tracks = new ArrayList<>(playlist.getTracks().size());
+                AudioTrack selected = null;
+                for(AudioTrack track: playlist.getTracks())
+                {
+                    AudioTrack clone = track.makeClone();
+                    if(track == playlist.getSelectedTrack())
+                        selected = clone;
+                    tracks.add(clone);
+                }
+                if(selected == null && playlist.getSelectedTrack() != null)
+                    selected = playlist.getSelectedTrack().makeClone();
+                return new BasicAudioPlaylist(playlist.getName(), tracks, selected, playlist.isSearchResult());
+            }
+            // references are never changed by whoever receives them
+            return item;
+        }
+        catch(UnsupportedOperationException ex)
+        {
+            return null;
+        }
+    }
+
+    /**
+     * @return how many loads looked their identifier up
+     */
+    public long getLeaders()
+    {
+        return leaders.get();
+    }
+
+    /**
+     * @return how many loads used the result of another load of the same
+     *         identifier instead of looking it up
+     */
+    public long getCoalesced()
+    {
+        return coalesced.get();
+    }
+
+    @Override
+    public boolean isTrackEncodable(AudioTrack track)
+    {
+        return false;
+    }
+
+    @Override
+    public void encodeTrack(AudioTrack track, DataOutput output)
+    {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public AudioTrack decodeTrack(AudioTrackInfo trackInfo, DataInput input)
+    {
+        return null;
+    }
+
+    @Override
+    public void shutdown() {}
+}
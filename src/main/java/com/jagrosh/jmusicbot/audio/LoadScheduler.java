@@ -0,0 +1,303 @@
+/*
+ * Copyright 2026 John Grosh <john.a.grosh@gmail.com>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.jagrosh.jmusicbot.audio;
+
+import com.sedmelluq.discord.lavaplayer.player.AudioLoadResultHandler;
+import com.sedmelluq.discord.lavaplayer.tools.FriendlyException;
+import com.sedmelluq.discord.lavaplayer.track.AudioPlaylist;
+import com.sedmelluq.discord.lavaplayer.track.AudioTrack;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Decides when item loads start, so that one guild can't take every loader
+ * thread. At most a fixed number of loads run at once, and at most a few of
+ * them for any one guild; the rest wait in a queue per guild. When a load
+ * finishes, waiting guilds take turns starting their next load, and
+ * interactive loads (someone waiting on a command) always go before bulk
+ * loads (resolving playlist items). Loads are started in the order they were
+ * taken, by one thread at a time, so a guild's loads reach lavaplayer's
+ * ordered executor in the order they were submitted.
+ *
+ * @author John Grosh (john.a.grosh@gmail.com)
+ */
+public class LoadScheduler
+{
+    private final static Logger LOG = LoggerFactory.getLogger(LoadScheduler.class);
+
+    public enum Priority
+    {
+        INTERACTIVE, BULK
+    }
+
+    private final int maxLoads;
+    private final int maxLoadsPerGuild;
+    private final Map<Long, GuildQueue> guilds = new HashMap<>();
+    // guilds with waiting loads, in the order they get their next turn
+    private final Deque<GuildQueue> turns = new ArrayDeque<>();
+    private final int[] queued = new int[Priority.values().length];
+    // loads that were taken but not started yet, in the order they were taken
+    private final Deque<Load> starting = new ArrayDeque<>();
+    private boolean dispatching = false;
+    private int active = 0;
+
+    /**
+     * @param maxLoads how many loads may run at once
+     * @param maxLoadsPerGuild how many loads of a single guild may run at once
+     */
+    public LoadScheduler(int maxLoads, int maxLoadsPerGuild)
+    {
+        this.maxLoads = maxLoads;
+        this.maxLoadsPerGuild = maxLoadsPerGuild;
+    }
+
+    /**
+     * Queues a load, and starts it if there is room
+     *
+     * @param guildId the guild the load is for
+     * @param priority the priority of the load
+     * @param handler the handler for the result
+     * @param starter starts the load with the handler it is given, which
+     *                must eventually receive exactly one result
+     * @return a future completed when the load has finished
+     */
+    public CompletableFuture<Void> submit(long guildId, Priority priority, AudioLoadResultHandler handler, Consumer<AudioLoadResultHandler> starter)
+    {
+        Load load = new Load(guildId, handler, starter);
+        synchronized(this)
+        {
+            GuildQueue guild = guilds.computeIfAbsent(guildId, id -> new GuildQueue());
+            if(!guild.hasWaiting())
+                turns.add(guild);
+            guild.waiting[priority.ordinal()].add(load);
+            queued[priority.ordinal()]++;
+        }
+        dispatch();
+        return load.future;
+    }
+
+    private void dispatch()
+    {
+        synchronized(this)
+        {
+            Load next;
+            while(active < maxLoads && (next = take()) != null)
+            {
+                active++;
+                starting.add(next);
+            }
+            // whoever is already starting loads starts these too, after the
+            // ones taken before them; this includes this thread, when a load
+            // finishes as soon as it is started
+            if(dispatching)
+                return;
+            dispatching = true;
+        }
+        while(true)
+        {
+            Load load;
+            synchronized(this)
+            {
+                load = starting.poll();
+                if(load == null)
+                {
+                    dispatching = false;
+                    return;
+                }
+            }
+            load.start();
+        }
+    }
+
+    // takes the next load to start, from the first guild in turn that has one
+    // of the highest waiting priority and is below its limit
+    private Load take()
+    {
+        for(Priority priority: Priority.values())
+        {
+            if(queued[priority.ordinal()] == 0)
+                continue;
+            Iterator<GuildQueue> it = turns.iterator();
+            while(it.hasNext())
+            {
+                GuildQueue guild = it.next();
+                if(guild.active >= maxLoadsPerGuild || guild.waiting[priority.ordinal()].isEmpty())
+                    continue;
+                Load load = guild.waiting[priority.ordinal()].poll();
+                queued[priority.ordinal()]--;
+                guild.active++;
+                it.remove();
+                if(guild.hasWaiting())
+                    turns.add(guild);
+                return load;
+            }
+        }
+        return null;
+    }
+
+    private void finished(Load load)
+    {
+        synchronized(this)
+        {
+            active--;
+            GuildQueue guild = guilds.get(load.guildId);
+            guild.active--;
+            if(guild.active == 0 && !guild.hasWaiting())
+                guilds.remove(load.guildId);
+        }
+        dispatch();
+    }
+
+    /**
+     * @param priority the priority
+     * @return how many loads of that priority are waiting to start
+     */
+    public synchronized int getQueued(Priority priority)
+    {
+        return queued[priority.ordinal()];
+    }
+
+    /**
+     * @return how many loads are running
+     */
+    public synchronized int getActive()
+    {
+        return active;
+    }
+
+    /**
+     * @return the most loads any one guild has waiting
+     */
+    public synchronized int getLargestGuildQueue()
+    {
+        int largest = 0;
+        for(GuildQueue guild: turns)
+            largest = Math.max(largest, guild.waiting[0].size() + guild.waiting[1].size());
+        return largest;
+    }
+
+    private static class GuildQueue
+    {
+        @SuppressWarnings("unchecked")
+        private final Deque<Load>[] waiting = new Deque[]{new ArrayDeque<>(), new ArrayDeque<>()};
+        private int active = 0;
+
+        private boolean hasWaiting()
+        {
+            return !waiting[0].isEmpty() || !waiting[1].isEmpty();
+        }
+    }
+
+    private class Load implements AudioLoadResultHandler
+    {
+        private final long guildId;
+        private final AudioLoadResultHandler handler;
+        private final Consumer<AudioLoadResultHandler> starter;
+        private final CompletableFuture<Void> future = new CompletableFuture<>();
+        private boolean done = false;
+
+        private Load(long guildId, AudioLoadResultHandler handler, Consumer<AudioLoadResultHandler> starter)
+        {
+            this.guildId = guildId;
+            this.handler = handler;
+            this.starter = starter;
+        }
+
+        private void start()
+        {
+            try
+            {
+                starter.accept(this);
+            }
+            catch(Exception ex)
+            {
+                LOG.warn("Failed to start a load", ex);
+                loadFailed(new FriendlyException("The load could not be started.", FriendlyException.Severity.FAULT, ex));
+            }
+        }
+
+        private void end()
+        {
+            synchronized(this)
+            {
+                if(done)
+                    return;
+                done = true;
+            }
+            finished(this);
+            future.complete(null);
+        }
+
+        @Override
+        public void trackLoaded(AudioTrack track)
+        {
+            try
+            {
+                handler.trackLoaded(track);
+            }
+            finally
+            {
+                end();
+            }
+        }
+
+        @Override
+        public void playlistLoaded(AudioPlaylist playlist)
+        {
+            try
+            {
+                handler.playlistLoaded(playlist);
+            }
+            finally
+            {
+                end();
+            }
+        }
+
+        @Override
+        public void noMatches()
+        {
+            try
+            {
+                handler.noMatches();
+            }
+            finally
+            {
+                end();
+            }
+        }
+
+        @Override
+        public void loadFailed(FriendlyException exception)
+        {
+            try
+            {
+                handler.loadFailed(exception);
+            }
+            finally
+            {
+                end();
+            }
+        }
+    }
+}
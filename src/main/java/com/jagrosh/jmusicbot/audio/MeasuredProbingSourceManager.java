@@ -0,0 +1,101 @@
+/*
+ * Copyright 2026 John Grosh <john.a.grosh@gmail.com>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.jagrosh.jmusicbot.audio;
+
+import com.jagrosh.jmusicbot.metrics.SourceManagerMetrics;
+import com.sedmelluq.discord.lavaplayer.container.MediaContainerDescriptor;
+import com.sedmelluq.discord.lavaplayer.container.MediaContainerRegistry;
+import com.sedmelluq.discord.lavaplayer.player.AudioPlayerManager;
+import com.sedmelluq.discord.lavaplayer.source.AudioSourceManager;
+import com.sedmelluq.discord.lavaplayer.source.ProbingAudioSourceManager;
+import com.sedmelluq.discord.lavaplayer.track.AudioItem;
+import com.sedmelluq.discord.lavaplayer.track.AudioReference;
+import com.sedmelluq.discord.lavaplayer.track.AudioTrack;
+import com.sedmelluq.discord.lavaplayer.track.AudioTrackInfo;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * The {@link MeasuredSourceManager} for probing managers. lavaplayer only
+ * offers references with a container hint to managers that are a
+ * {@link ProbingAudioSourceManager}, so the wrapper has to be one too.
+ *
+ * @author John Grosh (john.a.grosh@gmail.com)
+ */
+public class MeasuredProbingSourceManager extends ProbingAudioSourceManager
+{
+    private final AudioSourceManager delegate;
+    private final SourceManagerMetrics.Stats stats;
+    private final SourceRouter router;
+
+    public MeasuredProbingSourceManager(AudioSourceManager delegate, SourceManagerMetrics.Stats stats, SourceRouter router)
+    {
+        // the registry is only used by createTrack, which the delegate does itself
+        super(MediaContainerRegistry.DEFAULT_REGISTRY);
+        this.delegate = delegate;
+        this.stats = stats;
+        this.router = router;
+    }
+
+    public AudioSourceManager getDelegate()
+    {
+        return delegate;
+    }
+
+    @Override
+    public String getSourceName()
+    {
+        return delegate.getSourceName();
+    }
+
+    @Override
+    public AudioItem loadItem(AudioPlayerManager manager, AudioReference reference)
+    {
+        return MeasuredSourceManager.measure(this, delegate, stats, router, manager, reference);
+    }
+
+    @Override
+    protected AudioTrack createTrack(AudioTrackInfo trackInfo, MediaContainerDescriptor containerTrackFactory)
+    {
+        // only called from a manager's own loadItem and decodeTrack, which go to the delegate
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public boolean isTrackEncodable(AudioTrack track)
+    {
+        return delegate.isTrackEncodable(track);
+    }
+
+    @Override
+    public void encodeTrack(AudioTrack track, DataOutput output) throws IOException
+    {
+        delegate.encodeTrack(track, output);
+    }
+
+    @Override
+    public AudioTrack decodeTrack(AudioTrackInfo trackInfo, DataInput input) throws IOException
+    {
+        return delegate.decodeTrack(trackInfo, input);
+    }
+
+    @Override
+    public void shutdown()
+    {
+        delegate.shutdown();
+    }
+}
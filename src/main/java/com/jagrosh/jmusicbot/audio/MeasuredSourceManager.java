@@ -0,0 +1,140 @@
+/*
+ * Copyright 2026 John Grosh <john.a.grosh@gmail.com>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.jagrosh.jmusicbot.audio;
+
+import com.jagrosh.jmusicbot.metrics.SourceManagerMetrics;
+import com.sedmelluq.discord.lavaplayer.player.AudioPlayerManager;
+import com.sedmelluq.discord.lavaplayer.source.AudioSourceManager;
+import com.sedmelluq.discord.lavaplayer.source.ProbingAudioSourceManager;
+import com.sedmelluq.discord.lavaplayer.track.AudioItem;
+import com.sedmelluq.discord.lavaplayer.track.AudioReference;
+import com.sedmelluq.discord.lavaplayer.track.AudioTrack;
+import com.sedmelluq.discord.lavaplayer.track.AudioTrackInfo;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * Wraps a source manager to measure its loadItem calls, and to skip it when
+ * the {@link SourceRouter} already asked it to load the same reference.
+ * Everything else is passed straight through, and tracks keep the wrapped
+ * manager as their source, so encoding and playback are unaffected. Use
+ * {@link #wrap} so probing managers keep being offered references with a
+ * container hint.
+ *
+ * @author John Grosh (john.a.grosh@gmail.com)
+ */
+public class MeasuredSourceManager implements AudioSourceManager
+{
+    private final AudioSourceManager delegate;
+    private final SourceManagerMetrics.Stats stats;
+    private final SourceRouter router;
+
+    public MeasuredSourceManager(AudioSourceManager delegate, SourceManagerMetrics.Stats stats, SourceRouter router)
+    {
+        this.delegate = delegate;
+        this.stats = stats;
+        this.router = router;
+    }
+
+    /**
+     * Wraps a source manager, as a {@link MeasuredProbingSourceManager} if it
+     * is a probing manager
+     */
+    public static AudioSourceManager wrap(AudioSourceManager delegate, SourceManagerMetrics.Stats stats, SourceRouter router)
+    {
+        return delegate instanceof ProbingAudioSourceManager
+                ? new MeasuredProbingSourceManager(delegate, stats, router)
+                : new MeasuredSourceManager(delegate, stats, router);
+    }
+
+    /**
+     * @return the manager wrapped by the given one, or the given one if it
+     *         isn't a wrapper
+     */
+    public static AudioSourceManager unwrap(AudioSourceManager sourceManager)
+    {
+        if(sourceManager instanceof MeasuredSourceManager)
+            return ((MeasuredSourceManager) sourceManager).getDelegate();
+        if(sourceManager instanceof MeasuredProbingSourceManager)
+            return ((MeasuredProbingSourceManager) sourceManager).getDelegate();
+        return sourceManager;
+    }
+
+    public AudioSourceManager getDelegate()
+    {
+        return delegate;
+    }
+
+    @Override
+    public String getSourceName()
+    {
+        return delegate.getSourceName();
+    }
+
+    @Override
+    public AudioItem loadItem(AudioPlayerManager manager, AudioReference reference)
+    {
+        return measure(this, delegate, stats, router, manager, reference);
+    }
+
+    static AudioItem measure(AudioSourceManager wrapper, AudioSourceManager delegate, SourceManagerMetrics.Stats stats,
+            SourceRouter router, AudioPlayerManager manager, AudioReference reference)
+    {
+        if(router.isDeclined(wrapper, reference))
+            return null;
+        long start = stats.start();
+        AudioItem item;
+        try
+        {
+            item = delegate.loadItem(manager, reference);
+        }
+        catch(RuntimeException ex)
+        {
+            stats.recordError(start);
+            throw ex;
+        }
+        if(item == null)
+            stats.recordMiss(start);
+        else
+            stats.recordHit(start);
+        return item;
+    }
+
+    @Override
+    public boolean isTrackEncodable(AudioTrack track)
+    {
+        return delegate.isTrackEncodable(track);
+    }
+
+    @Override
+    public void encodeTrack(AudioTrack track, DataOutput output) throws IOException
+    {
+        delegate.encodeTrack(track, output);
+    }
+
+    @Override
+    public AudioTrack decodeTrack(AudioTrackInfo trackInfo, DataInput input) throws IOException
+    {
+        return delegate.decodeTrack(trackInfo, input);
+    }
+
+    @Override
+    public void shutdown()
+    {
+        delegate.shutdown();
+    }
+}
@@ -17,9 +17,14 @@ package com.jagrosh.jmusicbot.audio;
 
 import com.dunctebot.sourcemanagers.DuncteBotSources;
 import com.jagrosh.jmusicbot.Bot;
+import com.jagrosh.jmusicbot.metrics.LoadMetrics;
+import com.jagrosh.jmusicbot.metrics.PlaybackMetrics;
+import com.jagrosh.jmusicbot.metrics.SourceManagerMetrics;
 import com.sedmelluq.discord.lavaplayer.container.MediaContainerRegistry;
+import com.sedmelluq.discord.lavaplayer.player.AudioLoadResultHandler;
 import com.sedmelluq.discord.lavaplayer.player.AudioPlayer;
 import com.sedmelluq.discord.lavaplayer.player.DefaultAudioPlayerManager;
+import com.sedmelluq.discord.lavaplayer.source.AudioSourceManager;
 import com.sedmelluq.discord.lavaplayer.source.AudioSourceManagers;
 import com.sedmelluq.discord.lavaplayer.source.bandcamp.BandcampAudioSourceManager;
 import com.sedmelluq.discord.lavaplayer.source.beam.BeamAudioSourceManager;
@@ -29,8 +34,21 @@ import com.sedmelluq.discord.lavaplayer.source.nico.NicoAudioSourceManager;
 import com.sedmelluq.discord.lavaplayer.source.soundcloud.SoundCloudAudioSourceManager;
 import com.sedmelluq.discord.lavaplayer.source.twitch.TwitchStreamAudioSourceManager;
 import com.sedmelluq.discord.lavaplayer.source.vimeo.VimeoAudioSourceManager;
+import com.sedmelluq.discord.lavaplayer.track.AudioReference;
+import com.sedmelluq.discord.lavaplayer.track.playback.NonAllocatingAudioFrameBuffer;
+import com.jagrosh.jmusicbot.settings.Settings;
 import dev.lavalink.youtube.YoutubeAudioSourceManager;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import net.dv8tion.jda.api.JDA;
 import net.dv8tion.jda.api.entities.Guild;
+import net.dv8tion.jda.api.managers.AudioManager;
 import org.slf4j.LoggerFactory;
 
 /**
@@ -39,16 +57,46 @@ import org.slf4j.LoggerFactory;
  */
 public class PlayerManager extends DefaultAudioPlayerManager
 {
+    private final static long PREFETCH_INTERVAL_MS = 10;
+    // guilds are split between this many read-ahead threads, so one guild's
+    // slow frame can't hold up every other guild
+    private final static int PREFETCH_THREADS = Math.max(1, Math.min(4, Runtime.getRuntime().availableProcessors()));
+    // set on read-ahead threads, whose track events are handed off
+    private final static ThreadLocal<Boolean> PREFETCHING = ThreadLocal.withInitial(() -> false);
     private final Bot bot;
+    private final PlaybackMetrics playbackMetrics = new PlaybackMetrics();
+    private final LoadMetrics loadMetrics = new LoadMetrics();
+    private final SourceManagerMetrics sourceManagerMetrics = new SourceManagerMetrics();
+    private final SourceRouter router = new SourceRouter();
+    private final LoadCoalescer coalescer = new LoadCoalescer(this::getSourceManagers);
+    private final LoadScheduler loadScheduler;
+    private ScheduledExecutorService prefetcher;
+    private ExecutorService trackEvents;
     
     public PlayerManager(Bot bot)
     {
         this.bot = bot;
+        this.loadScheduler = new LoadScheduler(bot.getConfig().getLoadThreads(), bot.getConfig().getLoadsPerGuild());
     }
     
     public void init()
     {
-        TransformativeAudioSourceManager.createTransforms(bot.getConfig().getTransforms()).forEach(t -> registerSourceManager(t));
+        // loads wait in the scheduler's queues rather than in the loader pool's
+        setItemLoaderThreadPoolSize(bot.getConfig().getLoadThreads());
+        // frames are copied into AudioHandler's buffers by provide(MutableAudioFrame),
+        // which only avoids allocating with this frame buffer
+        getConfiguration().setFrameBufferFactory(NonAllocatingAudioFrameBuffer::new);
+
+        // the coalescer is asked first, and lets overlapping loads of the same
+        // identifier share one lookup; the router is next, and sends
+        // identifiers it recognizes straight to their source manager
+        super.registerSourceManager(coalescer);
+        super.registerSourceManager(router);
+        if(bot.getConfig().getSearchCacheSize() > 0 && bot.getConfig().getSearchCacheTime() > 0)
+            router.setSearchCache(new SearchCache(bot.getConfig().getSearchCacheSize(), bot.getConfig().getSearchCacheTime()));
+
+        List<TransformativeAudioSourceManager> transforms = TransformativeAudioSourceManager.createTransforms(bot.getConfig().getTransforms());
+        transforms.forEach(t -> registerSourceManager(t));
 
         // Register Bilibili source manager with clean configuration
         BilibiliAudioSourceManager bilibiliSourceManager = new BilibiliAudioSourceManager();
@@ -58,7 +106,10 @@ public class PlayerManager extends DefaultAudioPlayerManager
             bot.getConfig().getBilibiliReferer(),
             bot.getConfig().getBilibiliOrigin(),
             bot.getConfig().getBilibiliSessdata(),
-            bot.getConfig().getBilibiliMaxBitrateKbps()
+            bot.getConfig().getBilibiliMaxBitrateKbps(),
+            bot.getConfig().getBilibiliMaxConnections(),
+            bot.getConfig().getBilibiliMaxConnectionsPerRoute(),
+            bot.getConfig().getBilibiliIdleTimeoutSeconds()
         );
         bilibiliSourceManager.updateConfiguration(bilibiliConfig);
         registerSourceManager(bilibiliSourceManager);
@@ -68,18 +119,87 @@ public class PlayerManager extends DefaultAudioPlayerManager
         yt.setPlaylistPageCount(bot.getConfig().getMaxYTPlaylistPages());
         registerSourceManager(yt);
 
-        registerSourceManager(SoundCloudAudioSourceManager.createDefault());
-        registerSourceManager(new BandcampAudioSourceManager());
-        registerSourceManager(new VimeoAudioSourceManager());
-        registerSourceManager(new TwitchStreamAudioSourceManager());
+        SoundCloudAudioSourceManager soundcloud = SoundCloudAudioSourceManager.createDefault();
+        BandcampAudioSourceManager bandcamp = new BandcampAudioSourceManager();
+        VimeoAudioSourceManager vimeo = new VimeoAudioSourceManager();
+        TwitchStreamAudioSourceManager twitch = new TwitchStreamAudioSourceManager();
+        GetyarnAudioSourceManager getyarn = new GetyarnAudioSourceManager();
+        NicoAudioSourceManager nico = new NicoAudioSourceManager();
+        registerSourceManager(soundcloud);
+        registerSourceManager(bandcamp);
+        registerSourceManager(vimeo);
+        registerSourceManager(twitch);
         registerSourceManager(new BeamAudioSourceManager());
-        registerSourceManager(new GetyarnAudioSourceManager());
-        registerSourceManager(new NicoAudioSourceManager());
+        registerSourceManager(getyarn);
+        registerSourceManager(nico);
         registerSourceManager(new HttpAudioSourceManager(MediaContainerRegistry.DEFAULT_REGISTRY));
 
         AudioSourceManagers.registerLocalSource(this);
 
         DuncteBotSources.registerAll(this, "en-US");
+
+        // routes follow the registration order above: transforms come first,
+        // and only managers ahead of the generic http source are routed to
+        transforms.forEach(t -> router.addPattern(t.getPattern(), registered(t)));
+        router.addHosts(registered(bilibiliSourceManager), "bilibili.com");
+        router.addHosts(registered(yt), "youtube.com", "youtu.be", "youtube-nocookie.com");
+        router.addPrefixes(registered(yt), "ytsearch", "ytmsearch");
+        router.addHosts(registered(soundcloud), "soundcloud.com");
+        router.addPrefixes(registered(soundcloud), "scsearch");
+        router.addHosts(registered(bandcamp), "bandcamp.com");
+        router.addHosts(registered(vimeo), "vimeo.com");
+        router.addHosts(registered(twitch), "twitch.tv");
+        router.addHosts(registered(getyarn), "getyarn.io");
+        router.addHosts(registered(nico), "nicovideo.jp", "nico.ms");
+
+        bot.getSettingsManager().addListener(this::onSettingsChanged);
+
+        if(bot.getConfig().getPrefetchFrames() > 0)
+        {
+            prefetcher = Executors.newScheduledThreadPool(PREFETCH_THREADS, daemonThreads("frame-prefetch", Thread.MAX_PRIORITY));
+            for(int i=0; i<PREFETCH_THREADS; i++)
+            {
+                int shard = i;
+                prefetcher.scheduleAtFixedRate(() -> prefetchFrames(shard), PREFETCH_INTERVAL_MS, PREFETCH_INTERVAL_MS, TimeUnit.MILLISECONDS);
+            }
+            trackEvents = Executors.newCachedThreadPool(daemonThreads("track-events", Thread.NORM_PRIORITY));
+        }
+    }
+    
+    private static ThreadFactory daemonThreads(String name, int priority)
+    {
+        AtomicInteger count = new AtomicInteger();
+        return r -> 
+        {
+            Thread thread = new Thread(r, name + "-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            thread.setPriority(priority);
+            return thread;
+        };
+    }
+    
+    /**
+     * Runs the handling of a track event. Events fired while reading frames
+     * ahead (such as a track ending) are handed off, since starting the next
+     * track can load playlists and write to disk, which would hold up reading
+     * ahead for other guilds.
+     */
+    protected void onTrackEvent(Runnable handling)
+    {
+        if(PREFETCHING.get())
+            trackEvents.execute(handling);
+        else
+            handling.run();
+    }
+    
+    @Override
+    public void shutdown()
+    {
+        if(prefetcher != null)
+            prefetcher.shutdownNow();
+        if(trackEvents != null)
+            trackEvents.shutdownNow();
+        super.shutdown();
     }
     
     public Bot getBot()
@@ -87,6 +207,103 @@ public class PlayerManager extends DefaultAudioPlayerManager
         return bot;
     }
     
+    public PlaybackMetrics getPlaybackMetrics()
+    {
+        return playbackMetrics;
+    }
+    
+    public LoadMetrics getLoadMetrics()
+    {
+        return loadMetrics;
+    }
+    
+    public SourceManagerMetrics getSourceManagerMetrics()
+    {
+        return sourceManagerMetrics;
+    }
+    
+    // every source manager, including those registered by other libraries,
+    // is measured
+    @Override
+    public void registerSourceManager(AudioSourceManager sourceManager)
+    {
+        super.registerSourceManager(MeasuredSourceManager.wrap(sourceManager, 
+                sourceManagerMetrics.forManager(sourceManager.getSourceName()), router));
+    }
+    
+    // the registered wrapper of a source manager, which is what routes
+    // should lead to so that routed loads are measured too
+    private AudioSourceManager registered(AudioSourceManager sourceManager)
+    {
+        for(AudioSourceManager registered: getSourceManagers())
+            if(registered != sourceManager && MeasuredSourceManager.unwrap(registered) == sourceManager)
+                return registered;
+        return sourceManager;
+    }
+    
+    public SourceRouter getSourceRouter()
+    {
+        return router;
+    }
+    
+    public LoadCoalescer getLoadCoalescer()
+    {
+        return coalescer;
+    }
+    
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T extends AudioSourceManager> T source(Class<T> klass)
+    {
+        for(AudioSourceManager sourceManager: getSourceManagers())
+        {
+            AudioSourceManager unwrapped = MeasuredSourceManager.unwrap(sourceManager);
+            if(klass.isInstance(unwrapped))
+                return (T) unwrapped;
+        }
+        return null;
+    }
+    
+    public LoadScheduler getLoadScheduler()
+    {
+        return loadScheduler;
+    }
+    
+    // the String overloads delegate to these, so every load is measured
+    @Override
+    public Future<Void> loadItem(AudioReference reference, AudioLoadResultHandler resultHandler)
+    {
+        return super.loadItem(reference, loadMetrics.wrap(resultHandler));
+    }
+    
+    /**
+     * Loads an item someone is waiting on, such as for a command. The load is
+     * queued by the load scheduler as an interactive load of the guild given
+     * as the ordering key.
+     */
+    @Override
+    public Future<Void> loadItemOrdered(Object orderingKey, AudioReference reference, AudioLoadResultHandler resultHandler)
+    {
+        long guildId = orderingKey instanceof Guild ? ((Guild) orderingKey).getIdLong() : 0L;
+        return loadScheduler.submit(guildId, LoadScheduler.Priority.INTERACTIVE, loadMetrics.wrap(resultHandler), 
+                handler -> super.loadItemOrdered(orderingKey, reference, handler));
+    }
+    
+    /**
+     * Loads an item in the background, such as an item of a playlist. The
+     * load is queued by the load scheduler as a bulk load of the guild.
+     * 
+     * @param guildId the guild the item is loaded for
+     * @param identifier the identifier to load
+     * @param resultHandler the handler for the result
+     * @return a future completed when the load has finished
+     */
+    public Future<Void> loadItemBulk(long guildId, String identifier, AudioLoadResultHandler resultHandler)
+    {
+        return loadScheduler.submit(guildId, LoadScheduler.Priority.BULK, loadMetrics.wrap(resultHandler), 
+                handler -> super.loadItem(new AudioReference(identifier, null), handler));
+    }
+    
     public boolean hasHandler(Guild guild)
     {
         return guild.getAudioManager().getSendingHandler()!=null;
@@ -98,7 +315,6 @@ public class PlayerManager extends DefaultAudioPlayerManager
         if(guild.getAudioManager().getSendingHandler()==null)
         {
             AudioPlayer player = createPlayer();
-            player.setVolume(bot.getSettingsManager().getSettings(guild).getVolume());
             handler = new AudioHandler(this, guild, player);
             player.addListener(handler);
             guild.getAudioManager().setSendingHandler(handler);
@@ -107,4 +323,35 @@ public class PlayerManager extends DefaultAudioPlayerManager
             handler = (AudioHandler) guild.getAudioManager().getSendingHandler();
         return handler;
     }
+
+    private void prefetchFrames(int shard)
+    {
+        JDA jda = bot.getJDA();
+        if(jda == null)
+            return;
+        PREFETCHING.set(true);
+        try
+        {
+            for(AudioManager am: jda.getAudioManagers())
+                if(am.getSendingHandler() instanceof AudioHandler && Math.floorMod(am.getGuild().getIdLong(), PREFETCH_THREADS) == shard)
+                    ((AudioHandler) am.getSendingHandler()).prefetch();
+        }
+        catch(Exception ex)
+        {
+            // an exception would cancel all future runs
+            LoggerFactory.getLogger(PlayerManager.class).warn("Failed to prefetch audio frames", ex);
+        }
+        finally
+        {
+            PREFETCHING.set(false);
+        }
+    }
+
+    private void onSettingsChanged(Settings settings)
+    {
+        JDA jda = bot.getJDA();
+        Guild guild = jda == null ? null : jda.getGuildById(settings.getGuildId());
+        if(guild != null && guild.getAudioManager().getSendingHandler() instanceof AudioHandler)
+            ((AudioHandler) guild.getAudioManager().getSendingHandler()).onSettingsChanged();
+    }
 }
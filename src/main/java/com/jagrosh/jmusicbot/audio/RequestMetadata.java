@@ -29,7 +29,7 @@ import java.util.regex.Pattern;
  */
 public class RequestMetadata
 {
-    public static final RequestMetadata EMPTY = new RequestMetadata(null, null);
+    public static final RequestMetadata EMPTY = new RequestMetadata((User) null, null);
     
     public final UserInfo user;
     public final RequestInfo requestInfo;
@@ -39,6 +39,12 @@ public class RequestMetadata
         this.user = user == null ? null : new UserInfo(user.getIdLong(), user.getName(), user.getDiscriminator(), user.getEffectiveAvatarUrl());
         this.requestInfo = requestInfo;
     }
+
+    private RequestMetadata(UserInfo user, RequestInfo requestInfo)
+    {
+        this.user = user;
+        this.requestInfo = requestInfo;
+    }
     
     public long getOwner()
     {
@@ -49,6 +55,18 @@ public class RequestMetadata
     {
         return new RequestMetadata(event.getAuthor(), new RequestInfo(event.getArgs(), track.getInfo().uri));
     }
+
+    /**
+     * Creates metadata for another track of the same request, reusing the
+     * requester and the parsed query instead of building them again
+     *
+     * @param track the other track
+     * @return metadata for that track
+     */
+    public RequestMetadata forTrack(AudioTrack track)
+    {
+        return new RequestMetadata(user, requestInfo == null ? null : new RequestInfo(requestInfo.query, track.getInfo().uri, requestInfo.startTimestamp));
+    }
     
     public static class RequestInfo
     {
@@ -0,0 +1,207 @@
+/*
+ * Copyright 2026 John Grosh <john.a.grosh@gmail.com>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.jagrosh.jmusicbot.audio;
+
+import com.sedmelluq.discord.lavaplayer.player.AudioPlayerManager;
+import com.sedmelluq.discord.lavaplayer.tools.io.MessageInput;
+import com.sedmelluq.discord.lavaplayer.tools.io.MessageOutput;
+import com.sedmelluq.discord.lavaplayer.track.AudioItem;
+import com.sedmelluq.discord.lavaplayer.track.AudioPlaylist;
+import com.sedmelluq.discord.lavaplayer.track.AudioTrack;
+import com.sedmelluq.discord.lavaplayer.track.BasicAudioPlaylist;
+import com.sedmelluq.discord.lavaplayer.track.DecodedTrackHolder;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Remembers the results of searches such as "ytsearch:" for a while, shared
+ * by every guild, so a popular query doesn't go to the search provider again
+ * each time it is searched. Results are kept encoded, and every hit decodes
+ * its own copy of the tracks. The least recently used entries are dropped
+ * when the cache is full.
+ *
+ * @author John Grosh (john.a.grosh@gmail.com)
+ */
+public class SearchCache
+{
+    private final static Logger LOG = LoggerFactory.getLogger(SearchCache.class);
+    private final static String[] PREFIXES = {"ytsearch:", "ytmsearch:", "scsearch:"};
+
+    private final int maxEntries;
+    private final long ttlNanos;
+    private final Map<String, Entry> entries;
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    /**
+     * @param maxEntries how many searches to remember
+     * @param ttlSeconds how long to remember each search for
+     */
+    public SearchCache(int maxEntries, long ttlSeconds)
+    {
+        this.maxEntries = maxEntries;
+        this.ttlNanos = TimeUnit.SECONDS.toNanos(ttlSeconds);
+        this.entries = new LinkedHashMap<String, Entry>(16, 0.75f, true)
+        {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest)
+            {
+                return size() > SearchCache.this.maxEntries;
+            }
+        };
+    }
+
+    /**
+     * @param identifier an identifier being loaded
+     * @return the key for the search, or null if the identifier isn't a
+     *         search; queries differing only in case or spacing share a key
+     */
+    public static String key(String identifier)
+    {
+        if(identifier == null)
+            return null;
+        for(String prefix: PREFIXES)
+            if(identifier.regionMatches(true, 0, prefix, 0, prefix.length()))
+                return prefix + identifier.substring(prefix.length()).trim().replaceAll("\\s+", " ").toLowerCase(Locale.ROOT);
+        return null;
+    }
+
+    /**
+     * @param manager the manager to decode tracks with
+     * @param identifier an identifier being loaded
+     * @return the cached results if the identifier is a search that was made
+     *         recently, or null
+     */
+    public AudioPlaylist get(AudioPlayerManager manager, String identifier)
+    {
+        String key = key(identifier);
+        if(key == null)
+            return null;
+        Entry entry;
+        synchronized(entries)
+        {
+            entry = entries.get(key);
+            if(entry != null && System.nanoTime() - entry.created > ttlNanos)
+            {
+                entries.remove(key);
+                entry = null;
+            }
+        }
+        List<AudioTrack> tracks = entry == null ? null : decode(manager, entry.tracks);
+        if(tracks == null)
+        {
+            misses.incrementAndGet();
+            return null;
+        }
+        hits.incrementAndGet();
+        return new BasicAudioPlaylist(entry.name, tracks, null, true);
+    }
+
+    /**
+     * Remembers the result of a search
+     *
+     * @param manager the manager to encode tracks with
+     * @param identifier the identifier that was loaded
+     * @param item what it loaded; only search results are kept
+     */
+    public void put(AudioPlayerManager manager, String identifier, AudioItem item)
+    {
+        String key = key(identifier);
+        if(key == null || !(item instanceof AudioPlaylist) || !((AudioPlaylist) item).isSearchResult())
+            return;
+        AudioPlaylist playlist = (AudioPlaylist) item;
+        try
+        {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            MessageOutput output = new MessageOutput(bytes);
+            for(AudioTrack track: playlist.getTracks())
+                manager.encodeTrack(output, track);
+            output.finish();
+            Entry entry = new Entry(playlist.getName(), bytes.toByteArray());
+            synchronized(entries)
+            {
+                entries.put(key, entry);
+            }
+        }
+        catch(Exception ex)
+        {
+            LOG.debug("Failed to encode search results for " + key + ": " + ex);
+        }
+    }
+
+    private static List<AudioTrack> decode(AudioPlayerManager manager, byte[] encoded)
+    {
+        try
+        {
+            MessageInput input = new MessageInput(new ByteArrayInputStream(encoded));
+            List<AudioTrack> tracks = new ArrayList<>();
+            DecodedTrackHolder holder;
+            while((holder = manager.decodeTrack(input)) != null)
+            {
+                if(holder.decodedTrack == null)
+                    return null;
+                tracks.add(holder.decodedTrack);
+            }
+            return tracks;
+        }
+        catch(IOException ex)
+        {
+            LOG.debug("Failed to decode cached search results: " + ex);
+            return null;
+        }
+    }
+
+    public long getHits()
+    {
+        return hits.get();
+    }
+
+    public long getMisses()
+    {
+        return misses.get();
+    }
+
+    public int size()
+    {
+        synchronized(entries)
+        {
+            return entries.size();
+        }
+    }
+
+    private static class Entry
+    {
+        private final String name;
+        private final byte[] tracks;
+        private final long created = System.nanoTime();
+
+        private Entry(String name, byte[] tracks)
+        {
+            this.name = name;
+            this.tracks = tracks;
+        }
+    }
+}
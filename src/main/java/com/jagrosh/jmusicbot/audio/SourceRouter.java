@@ -0,0 +1,264 @@
+/*
+ * Copyright 2026 John Grosh <john.a.grosh@gmail.com>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.jagrosh.jmusicbot.audio;
+
+import com.sedmelluq.discord.lavaplayer.player.AudioPlayerManager;
+import com.sedmelluq.discord.lavaplayer.source.AudioSourceManager;
+import com.sedmelluq.discord.lavaplayer.track.AudioItem;
+import com.sedmelluq.discord.lavaplayer.track.AudioReference;
+import com.sedmelluq.discord.lavaplayer.track.AudioTrack;
+import com.sedmelluq.discord.lavaplayer.track.AudioTrackInfo;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Pattern;
+
+/**
+ * Registered ahead of every other source manager, this sends identifiers it
+ * recognizes straight to the manager that handles them, so they don't have
+ * to be offered to each manager in turn. An identifier is recognized by a
+ * pattern (checked first, in order), by its host or a parent domain of it,
+ * or by a search prefix such as "ytsearch:". Anything else, and anything the
+ * chosen manager declines, is left to lavaplayer's usual probing. Routed
+ * searches can also be answered from a {@link SearchCache}.
+ * <p>
+ * A route must only be added for inputs that no earlier registered manager
+ * would claim, and every route must be added before the first load.
+ *
+ * @author John Grosh (john.a.grosh@gmail.com)
+ */
+public class SourceRouter implements AudioSourceManager
+{
+    private final List<Route> patterns = new ArrayList<>();
+    private final Map<String, AudioSourceManager> hosts = new HashMap<>();
+    private final Map<String, AudioSourceManager> prefixes = new HashMap<>();
+    // the manager that declined the reference being loaded on this thread, so
+    // the probing that follows doesn't ask it again
+    private final ThreadLocal<Declined> declined = new ThreadLocal<>();
+    private final AtomicLong routed = new AtomicLong();
+    private final AtomicLong fellBack = new AtomicLong();
+    private final AtomicLong unrouted = new AtomicLong();
+    private SearchCache searchCache = null;
+
+    /**
+     * Sets a cache to answer routed searches from, and to remember their
+     * results in
+     */
+    public void setSearchCache(SearchCache searchCache)
+    {
+        this.searchCache = searchCache;
+    }
+
+    public SearchCache getSearchCache()
+    {
+        return searchCache;
+    }
+
+    /**
+     * Routes identifiers that entirely match a pattern
+     */
+    public void addPattern(Pattern pattern, AudioSourceManager manager)
+    {
+        patterns.add(new Route(pattern, manager));
+    }
+
+    /**
+     * Routes http(s) URLs on these hosts or any of their subdomains
+     */
+    public void addHosts(AudioSourceManager manager, String... hostNames)
+    {
+        for(String host: hostNames)
+            hosts.put(host.toLowerCase(Locale.ROOT), manager);
+    }
+
+    /**
+     * Routes identifiers starting with one of these prefixes and a colon
+     */
+    public void addPrefixes(AudioSourceManager manager, String... prefixNames)
+    {
+        for(String prefix: prefixNames)
+            prefixes.put(prefix.toLowerCase(Locale.ROOT), manager);
+    }
+
+    /**
+     * @param identifier the identifier being loaded
+     * @return the manager that handles it, or null if it isn't recognized
+     */
+    public AudioSourceManager route(String identifier)
+    {
+        if(identifier == null)
+            return null;
+        for(Route route: patterns)
+            if(route.pattern.matcher(identifier).matches())
+                return route.manager;
+        String host = host(identifier);
+        if(host != null)
+        {
+            // try the host, then each parent domain: m.soundcloud.com, soundcloud.com
+            for(int dot = -1; ; dot = host.indexOf('.', dot + 1))
+            {
+                AudioSourceManager manager = hosts.get(host.substring(dot + 1));
+                if(manager != null)
+                    return manager;
+                if(host.indexOf('.', dot + 1) < 0)
+                    return null;
+            }
+        }
+        int colon = identifier.indexOf(':');
+        return colon > 0 ? prefixes.get(identifier.substring(0, colon).toLowerCase(Locale.ROOT)) : null;
+    }
+
+    private static String host(String identifier)
+    {
+        int start;
+        if(identifier.regionMatches(true, 0, "https://", 0, 8))
+            start = 8;
+        else if(identifier.regionMatches(true, 0, "http://", 0, 7))
+            start = 7;
+        else
+            return null;
+        int end = start;
+        while(end < identifier.length() && "/?#:".indexOf(identifier.charAt(end)) < 0)
+            end++;
+        return identifier.substring(start, end).toLowerCase(Locale.ROOT);
+    }
+
+    @Override
+    public String getSourceName()
+    {
+        return "router";
+    }
+
+    @Override
+    public AudioItem loadItem(AudioPlayerManager manager, AudioReference reference)
+    {
+        declined.remove();
+        AudioSourceManager target = route(reference.identifier);
+        if(target == null)
+        {
+            unrouted.incrementAndGet();
+            return null;
+        }
+        if(searchCache != null)
+        {
+            AudioItem cached = searchCache.get(manager, reference.identifier);
+            if(cached != null)
+                return cached;
+        }
+        AudioItem item = target.loadItem(manager, reference);
+        if(item == null)
+        {
+            fellBack.incrementAndGet();
+            declined.set(new Declined(reference, target));
+        }
+        else
+        {
+            routed.incrementAndGet();
+            if(searchCache != null)
+                searchCache.put(manager, reference.identifier, item);
+        }
+        return item;
+    }
+
+    /**
+     * @param manager a registered source manager
+     * @param reference the reference it's being asked to load
+     * @return true if the reference was routed to that manager and it already
+     *         declined it
+     */
+    public boolean isDeclined(AudioSourceManager manager, AudioReference reference)
+    {
+        Declined d = declined.get();
+        return d != null && d.manager == manager && d.reference == reference;
+    }
+
+    /**
+     * @return how many identifiers were loaded by the manager they were
+     *         routed to
+     */
+    public long getRouted()
+    {
+        return routed.get();
+    }
+
+    /**
+     * @return how many identifiers were declined by the manager they were
+     *         routed to, and fell back to probing
+     */
+    public long getDeclined()
+    {
+        return fellBack.get();
+    }
+
+    /**
+     * @return how many identifiers weren't recognized and fell back to
+     *         probing
+     */
+    public long getUnrouted()
+    {
+        return unrouted.get();
+    }
+
+    @Override
+    public boolean isTrackEncodable(AudioTrack track)
+    {
+        return false;
+    }
+
+    @Override
+    public void encodeTrack(AudioTrack track, DataOutput output)
+    {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public AudioTrack decodeTrack(AudioTrackInfo trackInfo, DataInput input)
+    {
+        return null;
+    }
+
+    @Override
+    public void shutdown() {}
+
+    private static class Declined
+    {
+        private final AudioReference reference;
+        private final AudioSourceManager manager;
+
+        private Declined(AudioReference reference, AudioSourceManager manager)
+        {
+            this.reference = reference;
+            this.manager = manager;
+        }
+    }
+
+    private static class Route
+    {
+        private final Pattern pattern;
+        private final AudioSourceManager manager;
+
+        private Route(Pattern pattern, AudioSourceManager manager)
+        {
+            this.pattern = pattern;
+            this.manager = manager;
+        }
+    }
+}
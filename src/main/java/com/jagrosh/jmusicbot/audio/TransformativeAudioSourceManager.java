@@ -23,6 +23,9 @@ import dev.lavalink.youtube.YoutubeAudioSourceManager;
 import java.io.IOException;
 import java.util.Collections;
 import java.util.List;
+import java.util.Objects;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 import java.util.regex.PatternSyntaxException;
 import java.util.stream.Collectors;
 import org.jsoup.Jsoup;
@@ -37,7 +40,8 @@ import org.slf4j.LoggerFactory;
 public class TransformativeAudioSourceManager extends YoutubeAudioSourceManager
 {
     private final static Logger log = LoggerFactory.getLogger(TransformativeAudioSourceManager.class);
-    private final String name, regex, replacement, selector, format;
+    private final String name, replacement, selector, format;
+    private final Pattern pattern;
     
     public TransformativeAudioSourceManager(String name, Config object)
     {
@@ -47,7 +51,7 @@ public class TransformativeAudioSourceManager extends YoutubeAudioSourceManager
     public TransformativeAudioSourceManager(String name, String regex, String replacement, String selector, String format)
     {
         this.name = name;
-        this.regex = regex;
+        this.pattern = Pattern.compile(regex);
         this.replacement = replacement;
         this.selector = selector;
         this.format = format;
@@ -62,20 +66,19 @@ public class TransformativeAudioSourceManager extends YoutubeAudioSourceManager
     @Override
     public AudioItem loadItem(AudioPlayerManager apm, AudioReference ar)
     {
-        if(ar.identifier == null || !ar.identifier.matches(regex))
+        if(ar.identifier == null)
+            return null;
+        Matcher matcher = pattern.matcher(ar.identifier);
+        if(!matcher.matches())
             return null;
         try
         {
-            String url = ar.identifier.replaceAll(regex, replacement);
+            String url = matcher.replaceAll(replacement);
             Document doc = Jsoup.connect(url).get();
             String value = doc.selectFirst(selector).ownText();
             String formattedValue = String.format(format, value);
             return super.loadItem(apm, new AudioReference(formattedValue, null));
         }
-        catch (PatternSyntaxException ex)
-        {
-            log.info(String.format("Invalid pattern syntax '%s' in source '%s'", regex, name));
-        }
         catch (IOException ex)
         {
             log.warn(String.format("Failed to resolve URL in source '%s': ", name), ex);
@@ -87,12 +90,31 @@ public class TransformativeAudioSourceManager extends YoutubeAudioSourceManager
         return null;
     }
     
+    public Pattern getPattern()
+    {
+        return pattern;
+    }
+    
+    private static TransformativeAudioSourceManager create(String name, Config object)
+    {
+        try
+        {
+            return new TransformativeAudioSourceManager(name, object);
+        }
+        catch (PatternSyntaxException ex)
+        {
+            log.warn(String.format("Invalid pattern syntax '%s' in source '%s'", ex.getPattern(), name));
+            return null;
+        }
+    }
+    
     public static List<TransformativeAudioSourceManager> createTransforms(Config transforms)
     {
         try
         {
             return transforms.root().entrySet().stream()
-                    .map(e -> new TransformativeAudioSourceManager(e.getKey(), transforms.getConfig(e.getKey())))
+                    .map(e -> create(e.getKey(), transforms.getConfig(e.getKey())))
+                    .filter(Objects::nonNull)
                     .collect(Collectors.toList());
         }
         catch (Exception ex)
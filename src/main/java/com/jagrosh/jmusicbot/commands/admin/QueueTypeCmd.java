@@ -17,7 +17,6 @@ package com.jagrosh.jmusicbot.commands.admin;
 
 import com.jagrosh.jdautilities.command.CommandEvent;
 import com.jagrosh.jmusicbot.Bot;
-import com.jagrosh.jmusicbot.audio.AudioHandler;
 import com.jagrosh.jmusicbot.commands.AdminCommand;
 import com.jagrosh.jmusicbot.settings.QueueType;
 import com.jagrosh.jmusicbot.settings.Settings;
@@ -62,13 +61,7 @@ public class QueueTypeCmd extends AdminCommand
         }
 
         if (settings.getQueueType() != value)
-        {
-            settings.setQueueType(value);
-
-            AudioHandler handler = (AudioHandler) event.getGuild().getAudioManager().getSendingHandler();
-            if (handler != null)
-                handler.setQueueType(value);
-        }
+            settings.setQueueType(value); // an existing AudioHandler picks this up from the change event
 
         event.reply(value.getEmoji() + " Queue type was set to `" + value.getUserFriendlyName() + "`.");
     }
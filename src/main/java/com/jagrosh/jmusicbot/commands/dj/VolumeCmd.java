@@ -41,7 +41,7 @@ public class VolumeCmd extends DJCommand
     public void doCommand(CommandEvent event)
     {
         AudioHandler handler = (AudioHandler)event.getGuild().getAudioManager().getSendingHandler();
-        Settings settings = event.getClient().getSettingsFor(event.getGuild());
+        Settings settings = handler.getSettings();
         int volume = handler.getPlayer().getVolume();
         if(event.getArgs().isEmpty())
         {
@@ -59,8 +59,7 @@ public class VolumeCmd extends DJCommand
                 event.reply(event.getClient().getError()+" Volume must be a valid integer between 0 and 150!");
             else
             {
-                handler.getPlayer().setVolume(nvolume);
-                settings.setVolume(nvolume);
+                settings.setVolume(nvolume); // the handler applies this to the player
                 event.reply(FormatUtil.volumeIcon(nvolume)+" Volume changed from `"+volume+"` to `"+nvolume+"`");
             }
         }
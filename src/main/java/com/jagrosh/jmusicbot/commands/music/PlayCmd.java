@@ -32,6 +32,8 @@ import com.jagrosh.jmusicbot.commands.DJCommand;
 import com.jagrosh.jmusicbot.commands.MusicCommand;
 import com.jagrosh.jmusicbot.playlist.PlaylistLoader.Playlist;
 import com.jagrosh.jmusicbot.utils.FormatUtil;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.TimeUnit;
 import net.dv8tion.jda.api.Permission;
 import net.dv8tion.jda.api.entities.Message;
@@ -45,6 +47,7 @@ public class PlayCmd extends MusicCommand
 {
     private final static String LOAD = "\uD83D\uDCE5"; // 📥
     private final static String CANCEL = "\uD83D\uDEAB"; // 🚫
+    private final static long PROGRESS_INTERVAL = 3000;
     
     private final String loadingEmoji;
     
@@ -142,16 +145,17 @@ public class PlayCmd extends MusicCommand
         
         private int loadPlaylist(AudioPlaylist playlist, AudioTrack exclude)
         {
-            int[] count = {0};
-            playlist.getTracks().stream().forEach((track) -> {
-                if(!bot.getConfig().isTooLong(track) && !track.equals(exclude))
-                {
-                    AudioHandler handler = (AudioHandler)event.getGuild().getAudioManager().getSendingHandler();
-                    handler.addTrack(new QueuedTrack(track, RequestMetadata.fromResultHandler(track, event)));
-                    count[0]++;
-                }
-            });
-            return count[0];
+            List<QueuedTrack> tracks = new ArrayList<>(playlist.getTracks().size());
+            RequestMetadata rm = null;
+            for(AudioTrack track: playlist.getTracks())
+            {
+                if(track.equals(exclude))
+                    continue;
+                rm = rm == null ? RequestMetadata.fromResultHandler(track, event) : rm.forTrack(track);
+                tracks.add(new QueuedTrack(track, rm));
+            }
+            AudioHandler handler = (AudioHandler)event.getGuild().getAudioManager().getSendingHandler();
+            return handler.addTracks(tracks);
         }
         
         @Override
@@ -246,7 +250,28 @@ public class PlayCmd extends MusicCommand
             event.getMessage().getChannel().sendMessage(loadingEmoji+" Loading playlist **"+event.getArgs()+"**... ("+playlist.getItems().size()+" items)").queue(m -> 
             {
                 AudioHandler handler = (AudioHandler)event.getGuild().getAudioManager().getSendingHandler();
-                playlist.loadTracks(bot.getPlayerManager(), (at)->handler.addTrack(new QueuedTrack(at, RequestMetadata.fromResultHandler(at, event))), () -> {
+                long[] lastUpdate = {System.currentTimeMillis()};
+                playlist.loadTracks(bot.getPlayerManager(), event.getGuild().getIdLong(), (tracks) -> 
+                {
+                    List<QueuedTrack> qtracks = new ArrayList<>(tracks.size());
+                    RequestMetadata rm = null;
+                    for(AudioTrack at: tracks)
+                    {
+                        rm = rm == null ? RequestMetadata.fromResultHandler(at, event) : rm.forTrack(at);
+                        qtracks.add(new QueuedTrack(at, rm));
+                    }
+                    handler.addTracks(qtracks);
+                }, (finished) -> 
+                {
+                    // edits are rate limited, so only show progress every few seconds
+                    long now = System.currentTimeMillis();
+                    if(finished < playlist.getItems().size() && now - lastUpdate[0] >= PROGRESS_INTERVAL)
+                    {
+                        lastUpdate[0] = now;
+                        m.editMessage(FormatUtil.filter(loadingEmoji+" Loading playlist **"+playlist.getName()+"**... ("
+                                +finished+"/"+playlist.getItems().size()+" items, "+playlist.getTracks().size()+" tracks)")).queue();
+                    }
+                }, () -> {
                     StringBuilder builder = new StringBuilder(playlist.getTracks().isEmpty() 
                             ? event.getClient().getWarning()+" No tracks were loaded!" 
                             : event.getClient().getSuccess()+" Loaded **"+playlist.getTracks().size()+"** tracks!");
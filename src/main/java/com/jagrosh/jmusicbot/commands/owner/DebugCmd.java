@@ -18,11 +18,20 @@ package com.jagrosh.jmusicbot.commands.owner;
 import com.jagrosh.jdautilities.command.CommandEvent;
 import com.jagrosh.jdautilities.commons.JDAUtilitiesInfo;
 import com.jagrosh.jmusicbot.Bot;
+import com.jagrosh.jmusicbot.audio.AudioHandler;
+import com.jagrosh.jmusicbot.audio.BilibiliAudioSourceManager;
+import com.jagrosh.jmusicbot.audio.LoadCoalescer;
+import com.jagrosh.jmusicbot.audio.SearchCache;
 import com.jagrosh.jmusicbot.commands.OwnerCommand;
+import com.jagrosh.jmusicbot.metrics.PlaybackStats;
 import com.jagrosh.jmusicbot.utils.OtherUtil;
 import com.sedmelluq.discord.lavaplayer.tools.PlayerLibrary;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
 import net.dv8tion.jda.api.JDAInfo;
 import net.dv8tion.jda.api.Permission;
+import net.dv8tion.jda.api.entities.Guild;
 
 /**
  *
@@ -33,6 +42,9 @@ public class DebugCmd extends OwnerCommand
     private final static String[] PROPERTIES = {"java.version", "java.vm.name", "java.vm.specification.version", 
         "java.runtime.name", "java.runtime.version", "java.specification.version",  "os.arch", "os.name"};
     
+    // guilds with the most missed frames and stuck tracks to list
+    private final static int WORST_GUILDS = 5;
+    
     private final Bot bot;
     
     public DebugCmd(Bot bot)
@@ -71,6 +83,26 @@ public class DebugCmd extends OwnerCommand
         sb.append("\n\nRuntime Information:")
                 .append("\n  Total Memory = ").append(total)
                 .append("\n  Used Memory = ").append(used);
+        appendPlayback(sb, event);
+        sb.append("\n\nSource Managers:");
+        bot.getPlayerManager().getSourceManagerMetrics().getManagers()
+                .forEach((name, stats) -> sb.append("\n  ").append(name).append(" = ").append(stats));
+        LoadCoalescer coalescer = bot.getPlayerManager().getLoadCoalescer();
+        sb.append("\n  Coalesced Loads = ").append(coalescer.getCoalesced())
+                .append(" of ").append(coalescer.getCoalesced() + coalescer.getLeaders());
+        SearchCache searchCache = bot.getPlayerManager().getSourceRouter().getSearchCache();
+        if(searchCache != null)
+            sb.append("\n  Search Cache = hits=").append(searchCache.getHits())
+                    .append(" misses=").append(searchCache.getMisses())
+                    .append(" entries=").append(searchCache.size());
+        BilibiliAudioSourceManager bilibili = bot.getPlayerManager().source(BilibiliAudioSourceManager.class);
+        if(bilibili != null)
+            sb.append("\n  Bilibili API Connections = ").append(bilibili.getConnectionPool().getStats())
+                    .append(" reused=").append(String.format("%.2f", bilibili.getConnectionPool().getReuseRatio()))
+                    .append("\n  Bilibili Stream Connections = ").append(bilibili.getStreamConnectionPool().getStats())
+                    .append(" reused=").append(String.format("%.2f", bilibili.getStreamConnectionPool().getReuseRatio()))
+                    .append("\n  Bilibili Streams = failovers=").append(bilibili.getMirrorFailovers())
+                    .append(" refreshes=").append(bilibili.getUrlRefreshes());
         sb.append("\n\nDiscord Information:")
                 .append("\n  ID = ").append(event.getJDA().getSelfUser().getId())
                 .append("\n  Guilds = ").append(event.getJDA().getGuildCache().size())
@@ -83,4 +115,31 @@ public class DebugCmd extends OwnerCommand
         else
             event.reply("Debug Information: " + sb.toString());
     }
+    
+    private void appendPlayback(StringBuilder sb, CommandEvent event)
+    {
+        PlaybackStats total = new PlaybackStats();
+        List<Guild> guilds = new ArrayList<>();
+        for(Guild guild: event.getJDA().getGuilds())
+        {
+            if(guild.getAudioManager().getSendingHandler() instanceof AudioHandler)
+            {
+                ((AudioHandler) guild.getAudioManager().getSendingHandler()).getPlaybackStats().mergeInto(total);
+                guilds.add(guild);
+            }
+        }
+        sb.append("\n\nPlayback Information:")
+                .append("\n  Handlers = ").append(guilds.size())
+                .append("\n  All Guilds = ").append(total);
+        bot.getPlayerManager().getPlaybackMetrics().getSources()
+                .forEach((name, stats) -> sb.append("\n  Source ").append(name).append(" = ").append(stats));
+        guilds.sort(Comparator.comparingLong((Guild g) -> stats(g).getMisses() + stats(g).getStuck()).reversed());
+        guilds.stream().limit(WORST_GUILDS).filter(g -> stats(g).getMisses() + stats(g).getStuck() > 0)
+                .forEach(g -> sb.append("\n  Guild ").append(g.getId()).append(" = ").append(stats(g)));
+    }
+    
+    private static PlaybackStats stats(Guild guild)
+    {
+        return ((AudioHandler) guild.getAudioManager().getSendingHandler()).getPlaybackStats();
+    }
 }
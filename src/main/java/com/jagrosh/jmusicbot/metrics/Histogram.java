@@ -0,0 +1,139 @@
+/*
+ * Copyright 2026 John Grosh <john.a.grosh@gmail.com>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.jagrosh.jmusicbot.metrics;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A thread-safe histogram with fixed bucket bounds. Recording a value never
+ * allocates or locks, so it can be used on the audio send path.
+ *
+ * @author John Grosh (john.a.grosh@gmail.com)
+ */
+public class Histogram
+{
+    /**
+     * Bucket bounds suited to latencies in milliseconds, from a single audio
+     * frame up to a slow track load
+     */
+    public final static long[] MILLISECONDS = {1, 2, 5, 10, 15, 20, 25, 30, 40, 50, 75, 100, 250, 500, 1000, 2500, 5000, 10000, 30000};
+
+    private final long[] bounds;
+    // counts[i] counts values <= bounds[i] (and above the previous bound);
+    // the last bucket counts values above every bound
+    private final AtomicLongArray counts;
+    private final AtomicLong sum = new AtomicLong();
+    private final AtomicLong max = new AtomicLong();
+
+    public Histogram()
+    {
+        this(MILLISECONDS);
+    }
+
+    public Histogram(long[] bounds)
+    {
+        this.bounds = bounds;
+        this.counts = new AtomicLongArray(bounds.length + 1);
+    }
+
+    public void record(long value)
+    {
+        int index = Arrays.binarySearch(bounds, value);
+        counts.incrementAndGet(index >= 0 ? index : -index - 1);
+        sum.addAndGet(value);
+        updateMax(max, value);
+    }
+
+    /**
+     * Adds every value recorded here to another histogram with the same
+     * bounds
+     *
+     * @param target the histogram to add to
+     */
+    public void mergeInto(Histogram target)
+    {
+        if(!Arrays.equals(bounds, target.bounds))
+            throw new IllegalArgumentException("Histograms have different bounds");
+        for(int i=0; i<counts.length(); i++)
+            target.counts.addAndGet(i, counts.get(i));
+        target.sum.addAndGet(sum.get());
+        updateMax(target.max, max.get());
+    }
+
+    private static void updateMax(AtomicLong max, long value)
+    {
+        long current = max.get();
+        while(value > current && !max.compareAndSet(current, value))
+            current = max.get();
+    }
+
+    public long[] getBounds()
+    {
+        return bounds.clone();
+    }
+
+    /**
+     * @param index the bucket, from 0 to the number of bounds (inclusive)
+     * @return the number of values in that bucket alone
+     */
+    public long getBucketCount(int index)
+    {
+        return counts.get(index);
+    }
+
+    public long getCount()
+    {
+        long count = 0;
+        for(int i=0; i<counts.length(); i++)
+            count += counts.get(i);
+        return count;
+    }
+
+    public long getSum()
+    {
+        return sum.get();
+    }
+
+    public long getMax()
+    {
+        return max.get();
+    }
+
+    /**
+     * Estimates a percentile as the upper bound of the bucket it falls in
+     *
+     * @param percentile the percentile, between 0 and 100
+     * @return the estimate, the largest recorded value if it falls above
+     *         every bound, or 0 if nothing was recorded
+     */
+    public long getPercentile(double percentile)
+    {
+        long count = getCount();
+        if(count == 0)
+            return 0;
+        long rank = (long) Math.ceil(count * percentile / 100);
+        long seen = 0;
+        for(int i=0; i<bounds.length; i++)
+        {
+            seen += counts.get(i);
+            if(seen >= rank)
+                return Math.min(bounds[i], getMax());
+        }
+        return getMax();
+    }
+}
@@ -0,0 +1,138 @@
+/*
+ * Copyright 2026 John Grosh <john.a.grosh@gmail.com>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.jagrosh.jmusicbot.metrics;
+
+import com.sedmelluq.discord.lavaplayer.player.AudioLoadResultHandler;
+import com.sedmelluq.discord.lavaplayer.tools.FriendlyException;
+import com.sedmelluq.discord.lavaplayer.track.AudioPlaylist;
+import com.sedmelluq.discord.lavaplayer.track.AudioTrack;
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Counts item loads and how long they took, by the audio source that the
+ * loaded tracks came from. Loads that found nothing or failed have no source
+ * and are counted under "unknown".
+ *
+ * @author John Grosh (john.a.grosh@gmail.com)
+ */
+public class LoadMetrics
+{
+    public enum Result
+    {
+        TRACK, PLAYLIST, NO_MATCHES, FAILED
+    }
+
+    private final Map<String, SourceStats> sources = new ConcurrentHashMap<>();
+
+    /**
+     * Wraps a result handler so that the load is recorded when it finishes
+     *
+     * @param handler the handler to wrap
+     * @return a handler that records the load and passes results on
+     */
+    public AudioLoadResultHandler wrap(AudioLoadResultHandler handler)
+    {
+        return new MeasuredHandler(handler);
+    }
+
+    public void record(String source, Result result, long latencyMs)
+    {
+        SourceStats stats = sources.computeIfAbsent(source, s -> new SourceStats());
+        stats.results.incrementAndGet(result.ordinal());
+        stats.latency.record(latencyMs);
+    }
+
+    /**
+     * @return the stats for each source, sorted by source name
+     */
+    public Map<String, SourceStats> getSources()
+    {
+        return Collections.unmodifiableMap(new TreeMap<>(sources));
+    }
+
+    private static String sourceOf(AudioTrack track)
+    {
+        return track == null || track.getSourceManager() == null ? "unknown" : track.getSourceManager().getSourceName();
+    }
+
+    public static class SourceStats
+    {
+        private final AtomicLongArray results = new AtomicLongArray(Result.values().length);
+        private final Histogram latency = new Histogram();
+
+        public long getCount(Result result)
+        {
+            return results.get(result.ordinal());
+        }
+
+        /**
+         * @return the time from requesting a load to its result, in
+         *         milliseconds
+         */
+        public Histogram getLatency()
+        {
+            return latency;
+        }
+    }
+
+    private class MeasuredHandler implements AudioLoadResultHandler
+    {
+        private final AudioLoadResultHandler handler;
+        private final long start = System.nanoTime();
+
+        private MeasuredHandler(AudioLoadResultHandler handler)
+        {
+            this.handler = handler;
+        }
+
+        private void record(String source, Result result)
+        {
+            LoadMetrics.this.record(source, result, (System.nanoTime() - start) / 1000000);
+        }
+
+        @Override
+        public void trackLoaded(AudioTrack track)
+        {
+            record(sourceOf(track), Result.TRACK);
+            handler.trackLoaded(track);
+        }
+
+        @Override
+        public void playlistLoaded(AudioPlaylist playlist)
+        {
+            record(sourceOf(playlist.getTracks().isEmpty() ? playlist.getSelectedTrack() : playlist.getTracks().get(0)), Result.PLAYLIST);
+            handler.playlistLoaded(playlist);
+        }
+
+        @Override
+        public void noMatches()
+        {
+            record("unknown", Result.NO_MATCHES);
+            handler.noMatches();
+        }
+
+        @Override
+        public void loadFailed(FriendlyException exception)
+        {
+            record("unknown", Result.FAILED);
+            handler.loadFailed(exception);
+        }
+    }
+}
@@ -0,0 +1,311 @@
+/*
+ * Copyright 2026 John Grosh <john.a.grosh@gmail.com>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.jagrosh.jmusicbot.metrics;
+
+import com.jagrosh.jmusicbot.Bot;
+import com.jagrosh.jmusicbot.audio.AudioHandler;
+import com.jagrosh.jmusicbot.audio.BilibiliAudioSourceManager;
+import com.jagrosh.jmusicbot.audio.BilibiliConnectionPool;
+import com.jagrosh.jmusicbot.audio.LoadCoalescer;
+import com.jagrosh.jmusicbot.audio.LoadScheduler;
+import com.jagrosh.jmusicbot.audio.SearchCache;
+import com.jagrosh.jmusicbot.audio.SourceRouter;
+import com.jagrosh.jmusicbot.settings.SettingsManager;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryUsage;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import net.dv8tion.jda.api.JDA;
+import net.dv8tion.jda.api.managers.AudioManager;
+import org.apache.http.pool.PoolStats;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Serves the bot's metrics at /metrics in the Prometheus text format, using
+ * the HTTP server built into the JDK
+ *
+ * @author John Grosh (john.a.grosh@gmail.com)
+ */
+public class MetricsServer
+{
+    private final static Logger LOG = LoggerFactory.getLogger("Metrics");
+    private final static long LAG_PROBE_INTERVAL_MS = 1000;
+
+    private final Bot bot;
+    private final String host;
+    private final int port;
+    private final Histogram schedulerLag = new Histogram();
+    private HttpServer server;
+
+    public MetricsServer(Bot bot, String host, int port)
+    {
+        this.bot = bot;
+        this.host = host;
+        this.port = port;
+    }
+
+    public void start()
+    {
+        try
+        {
+            server = HttpServer.create(new InetSocketAddress(host, port), 0);
+        }
+        catch(IOException ex)
+        {
+            LOG.warn("Failed to start the metrics server on " + host + ":" + port + ": " + ex);
+            return;
+        }
+        server.createContext("/metrics", this::handle);
+        server.start();
+        scheduleLagProbe();
+        LOG.info("Serving metrics at http://" + host + ":" + port + "/metrics");
+    }
+
+    public void stop()
+    {
+        if(server != null)
+            server.stop(0);
+    }
+
+    // measures how late tasks on the bot's threadpool run
+    private void scheduleLagProbe()
+    {
+        long scheduled = System.nanoTime();
+        try
+        {
+            bot.getThreadpool().schedule(() ->
+            {
+                schedulerLag.record(Math.max(0, (System.nanoTime() - scheduled) / 1000000 - LAG_PROBE_INTERVAL_MS));
+                scheduleLagProbe();
+            }, LAG_PROBE_INTERVAL_MS, TimeUnit.MILLISECONDS);
+        }
+        catch(RejectedExecutionException ignore) {} // shutting down
+    }
+
+    private void handle(HttpExchange exchange) throws IOException
+    {
+        byte[] body;
+        try
+        {
+            body = collect().getBytes(StandardCharsets.UTF_8);
+        }
+        catch(Exception ex)
+        {
+            LOG.warn("Failed to collect metrics", ex);
+            exchange.sendResponseHeaders(500, -1);
+            exchange.close();
+            return;
+        }
+        exchange.getResponseHeaders().set("Content-Type", "text/plain; version=0.0.4; charset=utf-8");
+        exchange.sendResponseHeaders(200, body.length);
+        try(OutputStream out = exchange.getResponseBody())
+        {
+            out.write(body);
+        }
+    }
+
+    private String collect()
+    {
+        PrometheusWriter w = new PrometheusWriter();
+        writeLoads(w);
+        writeSourceManagers(w);
+        writeHandlers(w);
+        writePlayback(w);
+        writeSettings(w);
+        w.metric("jmusicbot_scheduler_lag_ms", "histogram", "How late tasks on the bot's scheduler start, in milliseconds.");
+        w.histogram("jmusicbot_scheduler_lag_ms", schedulerLag);
+        writeJvm(w);
+        return w.toString();
+    }
+
+    private void writeLoads(PrometheusWriter w)
+    {
+        LoadMetrics loads = bot.getPlayerManager().getLoadMetrics();
+        w.metric("jmusicbot_loads_total", "counter", "Item loads by the source of the loaded tracks and result.");
+        loads.getSources().forEach((source, stats) ->
+        {
+            for(LoadMetrics.Result result: LoadMetrics.Result.values())
+                w.sample("jmusicbot_loads_total", stats.getCount(result), "source", source, "result", result.name().toLowerCase());
+        });
+        w.metric("jmusicbot_load_latency_ms", "histogram", "Time from requesting an item load to its result, in milliseconds.");
+        loads.getSources().forEach((source, stats) -> w.histogram("jmusicbot_load_latency_ms", stats.getLatency(), "source", source));
+    }
+
+    private void writeSourceManagers(PrometheusWriter w)
+    {
+        Map<String, SourceManagerMetrics.Stats> managers = bot.getPlayerManager().getSourceManagerMetrics().getManagers();
+        w.metric("jmusicbot_source_manager_calls_total", "counter", "Calls to each source manager's loadItem, by whether it loaded something (hit), declined (miss) or threw (error).");
+        managers.forEach((name, stats) ->
+        {
+            w.sample("jmusicbot_source_manager_calls_total", stats.getHits(), "manager", name, "result", "hit");
+            w.sample("jmusicbot_source_manager_calls_total", stats.getMisses(), "manager", name, "result", "miss");
+            w.sample("jmusicbot_source_manager_calls_total", stats.getErrors(), "manager", name, "result", "error");
+        });
+        SourceRouter router = bot.getPlayerManager().getSourceRouter();
+        w.metric("jmusicbot_source_router_total", "counter", "Loads sent straight to a source manager (routed), routed but declined, or not recognized; the last two fall back to asking every manager.");
+        w.sample("jmusicbot_source_router_total", router.getRouted(), "result", "routed");
+        w.sample("jmusicbot_source_router_total", router.getDeclined(), "result", "declined");
+        w.sample("jmusicbot_source_router_total", router.getUnrouted(), "result", "unrouted");
+        LoadCoalescer coalescer = bot.getPlayerManager().getLoadCoalescer();
+        w.metric("jmusicbot_load_lookups_total", "counter", "Loads that looked their identifier up (leader), or used the result of an overlapping load of the same identifier (coalesced).");
+        w.sample("jmusicbot_load_lookups_total", coalescer.getLeaders(), "result", "leader");
+        w.sample("jmusicbot_load_lookups_total", coalescer.getCoalesced(), "result", "coalesced");
+        SearchCache searchCache = router.getSearchCache();
+        if(searchCache != null)
+        {
+            w.metric("jmusicbot_search_cache_lookups_total", "counter", "Searches answered from the search cache (hit) or searched again (miss).");
+            w.sample("jmusicbot_search_cache_lookups_total", searchCache.getHits(), "result", "hit");
+            w.sample("jmusicbot_search_cache_lookups_total", searchCache.getMisses(), "result", "miss");
+            w.metric("jmusicbot_search_cache_entries", "gauge", "Searches in the search cache.");
+            w.sample("jmusicbot_search_cache_entries", searchCache.size());
+        }
+        BilibiliAudioSourceManager bilibili = bot.getPlayerManager().source(BilibiliAudioSourceManager.class);
+        if(bilibili != null)
+        {
+            Map<String, BilibiliConnectionPool> pools = new LinkedHashMap<>();
+            pools.put("api", bilibili.getConnectionPool());
+            pools.put("stream", bilibili.getStreamConnectionPool());
+            w.metric("jmusicbot_bilibili_connection_leases_total", "counter", "Connections leased from each Bilibili connection pool, by whether an open connection was reused or a new one was opened.");
+            pools.forEach((name, pool) ->
+            {
+                w.sample("jmusicbot_bilibili_connection_leases_total", Math.max(0, pool.getLeases() - pool.getConnects()), "pool", name, "result", "reused");
+                w.sample("jmusicbot_bilibili_connection_leases_total", pool.getConnects(), "pool", name, "result", "opened");
+            });
+            w.metric("jmusicbot_bilibili_connection_reuse_ratio", "gauge", "Share of leases from each Bilibili connection pool that reused an open connection.");
+            pools.forEach((name, pool) -> w.sample("jmusicbot_bilibili_connection_reuse_ratio", pool.getReuseRatio(), "pool", name));
+            w.metric("jmusicbot_bilibili_connections", "gauge", "Connections in each Bilibili connection pool, by state; pending counts requests waiting for one.");
+            pools.forEach((name, pool) ->
+            {
+                PoolStats stats = pool.getStats();
+                w.sample("jmusicbot_bilibili_connections", stats.getLeased(), "pool", name, "state", "leased");
+                w.sample("jmusicbot_bilibili_connections", stats.getAvailable(), "pool", name, "state", "available");
+                w.sample("jmusicbot_bilibili_connections", stats.getPending(), "pool", name, "state", "pending");
+            });
+            w.metric("jmusicbot_bilibili_stream_recoveries_total", "counter", "Bilibili streams that moved on to another CDN mirror (failover) or got fresh signed URLs (refresh).");
+            w.sample("jmusicbot_bilibili_stream_recoveries_total", bilibili.getMirrorFailovers(), "result", "failover");
+            w.sample("jmusicbot_bilibili_stream_recoveries_total", bilibili.getUrlRefreshes(), "result", "refresh");
+        }
+        w.metric("jmusicbot_source_manager_in_flight", "gauge", "Calls to each source manager's loadItem that are running.");
+        managers.forEach((name, stats) -> w.sample("jmusicbot_source_manager_in_flight", stats.getInFlight(), "manager", name));
+        w.metric("jmusicbot_source_manager_latency_ms", "histogram", "Time taken by each source manager's loadItem, in milliseconds.");
+        managers.forEach((name, stats) ->
+        {
+            w.histogram("jmusicbot_source_manager_latency_ms", stats.getHitLatency(), "manager", name, "result", "hit");
+            w.histogram("jmusicbot_source_manager_latency_ms", stats.getMissLatency(), "manager", name, "result", "miss");
+        });
+    }
+
+    private void writeHandlers(PrometheusWriter w)
+    {
+        List<AudioHandler> handlers = getHandlers();
+        long queued = 0, largest = 0, playing = 0;
+        for(AudioHandler handler: handlers)
+        {
+            int size = handler.getQueue().size();
+            queued += size;
+            largest = Math.max(largest, size);
+            if(handler.getPlayer().getPlayingTrack() != null)
+                playing++;
+        }
+        LoadScheduler scheduler = bot.getPlayerManager().getLoadScheduler();
+        w.metric("jmusicbot_loads_active", "gauge", "Item loads running.");
+        w.sample("jmusicbot_loads_active", scheduler.getActive());
+        w.metric("jmusicbot_loads_queued", "gauge", "Item loads waiting for the load scheduler, by priority.");
+        for(LoadScheduler.Priority priority: LoadScheduler.Priority.values())
+            w.sample("jmusicbot_loads_queued", scheduler.getQueued(priority), "priority", priority.name().toLowerCase());
+        w.metric("jmusicbot_loads_largest_guild_queue", "gauge", "Item loads waiting for the guild with the most waiting.");
+        w.sample("jmusicbot_loads_largest_guild_queue", scheduler.getLargestGuildQueue());
+        w.metric("jmusicbot_audio_handlers", "gauge", "Guilds with an audio handler.");
+        w.sample("jmusicbot_audio_handlers", handlers.size());
+        w.metric("jmusicbot_playing_guilds", "gauge", "Guilds with a track playing.");
+        w.sample("jmusicbot_playing_guilds", playing);
+        w.metric("jmusicbot_queued_tracks", "gauge", "Tracks waiting in all queues.");
+        w.sample("jmusicbot_queued_tracks", queued);
+        w.metric("jmusicbot_largest_queue", "gauge", "Tracks waiting in the longest queue.");
+        w.sample("jmusicbot_largest_queue", largest);
+    }
+
+    private void writePlayback(PrometheusWriter w)
+    {
+        PlaybackMetrics playback = bot.getPlayerManager().getPlaybackMetrics();
+        w.metric("jmusicbot_frames_sent_total", "counter", "Audio frames sent, by source.");
+        playback.getSources().forEach((source, stats) -> w.sample("jmusicbot_frames_sent_total", stats.getFrames(), "source", source));
+        w.metric("jmusicbot_frames_missed_total", "counter", "Audio frames that were due while playing but not available, by source.");
+        playback.getSources().forEach((source, stats) -> w.sample("jmusicbot_frames_missed_total", stats.getMisses(), "source", source));
+        w.metric("jmusicbot_tracks_stuck_total", "counter", "Tracks reported as stuck, by source.");
+        playback.getSources().forEach((source, stats) -> w.sample("jmusicbot_tracks_stuck_total", stats.getStuck(), "source", source));
+        w.metric("jmusicbot_frame_interval_ms", "histogram", "Time between audio frames sent while playing, in milliseconds.");
+        playback.getSources().forEach((source, stats) -> w.histogram("jmusicbot_frame_interval_ms", stats.getFrameIntervals(), "source", source));
+        w.metric("jmusicbot_time_to_first_frame_ms", "histogram", "Time from a track starting to its first frame being sent, in milliseconds.");
+        playback.getSources().forEach((source, stats) -> w.histogram("jmusicbot_time_to_first_frame_ms", stats.getTimeToFirstFrame(), "source", source));
+    }
+
+    private void writeSettings(PrometheusWriter w)
+    {
+        SettingsManager settings = bot.getSettingsManager();
+        w.metric("jmusicbot_settings_writes_total", "counter", "Writes of changed settings to the settings store.");
+        w.sample("jmusicbot_settings_writes_total", settings.getWrites());
+        w.metric("jmusicbot_settings_guilds_written_total", "counter", "Guild settings written to the settings store.");
+        w.sample("jmusicbot_settings_guilds_written_total", settings.getGuildsWritten());
+        w.metric("jmusicbot_settings_write_failures_total", "counter", "Writes to the settings store that failed.");
+        w.sample("jmusicbot_settings_write_failures_total", settings.getWriteFailures());
+    }
+
+    private void writeJvm(PrometheusWriter w)
+    {
+        MemoryUsage heap = ManagementFactory.getMemoryMXBean().getHeapMemoryUsage();
+        MemoryUsage nonHeap = ManagementFactory.getMemoryMXBean().getNonHeapMemoryUsage();
+        w.metric("jvm_memory_used_bytes", "gauge", "Used JVM memory.");
+        w.sample("jvm_memory_used_bytes", heap.getUsed(), "area", "heap");
+        w.sample("jvm_memory_used_bytes", nonHeap.getUsed(), "area", "nonheap");
+        w.metric("jvm_memory_committed_bytes", "gauge", "Committed JVM memory.");
+        w.sample("jvm_memory_committed_bytes", heap.getCommitted(), "area", "heap");
+        w.sample("jvm_memory_committed_bytes", nonHeap.getCommitted(), "area", "nonheap");
+        w.metric("jvm_memory_max_bytes", "gauge", "Maximum JVM heap memory.");
+        w.sample("jvm_memory_max_bytes", heap.getMax(), "area", "heap");
+        w.metric("jvm_gc_collections_total", "counter", "Garbage collections, by collector.");
+        for(GarbageCollectorMXBean gc: ManagementFactory.getGarbageCollectorMXBeans())
+            w.sample("jvm_gc_collections_total", gc.getCollectionCount(), "gc", gc.getName());
+        w.metric("jvm_gc_collection_seconds_total", "counter", "Time spent in garbage collection, by collector.");
+        for(GarbageCollectorMXBean gc: ManagementFactory.getGarbageCollectorMXBeans())
+            w.sample("jvm_gc_collection_seconds_total", gc.getCollectionTime() / 1000.0, "gc", gc.getName());
+        w.metric("jvm_threads", "gauge", "Live JVM threads.");
+        w.sample("jvm_threads", ManagementFactory.getThreadMXBean().getThreadCount());
+    }
+
+    private List<AudioHandler> getHandlers()
+    {
+        List<AudioHandler> handlers = new ArrayList<>();
+        JDA jda = bot.getJDA();
+        if(jda != null)
+            for(AudioManager am: jda.getAudioManagers())
+                if(am.getSendingHandler() instanceof AudioHandler)
+                    handlers.add((AudioHandler) am.getSendingHandler());
+        return handlers;
+    }
+}
@@ -0,0 +1,49 @@
+/*
+ * Copyright 2026 John Grosh <john.a.grosh@gmail.com>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.jagrosh.jmusicbot.metrics;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Playback stats for each audio source, shared by every guild. Stats for
+ * each guild are kept by its AudioHandler.
+ *
+ * @author John Grosh (john.a.grosh@gmail.com)
+ */
+public class PlaybackMetrics
+{
+    private final Map<String, PlaybackStats> sources = new ConcurrentHashMap<>();
+
+    /**
+     * @param sourceName the name of an audio source manager
+     * @return the stats for tracks from that source
+     */
+    public PlaybackStats forSource(String sourceName)
+    {
+        return sources.computeIfAbsent(sourceName, name -> new PlaybackStats());
+    }
+
+    /**
+     * @return the stats for each source, sorted by source name
+     */
+    public Map<String, PlaybackStats> getSources()
+    {
+        return Collections.unmodifiableMap(new TreeMap<>(sources));
+    }
+}
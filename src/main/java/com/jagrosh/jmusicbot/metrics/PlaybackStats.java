@@ -0,0 +1,123 @@
+/*
+ * Copyright 2026 John Grosh <john.a.grosh@gmail.com>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.jagrosh.jmusicbot.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Playback health of one guild or one audio source: how regularly frames
+ * reach JDA, how often a frame was due but missing, how long tracks take to
+ * produce their first frame, and how often tracks get stuck.
+ *
+ * @author John Grosh (john.a.grosh@gmail.com)
+ */
+public class PlaybackStats
+{
+    private final Histogram frameIntervals = new Histogram();
+    private final Histogram timeToFirstFrame = new Histogram();
+    private final AtomicLong frames = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong stuck = new AtomicLong();
+
+    /**
+     * @param intervalMs the time since the previous frame was sent, or -1 if
+     *                   this is the first frame after a pause
+     */
+    public void recordFrame(long intervalMs)
+    {
+        frames.incrementAndGet();
+        if(intervalMs >= 0)
+            frameIntervals.record(intervalMs);
+    }
+
+    public void recordMiss()
+    {
+        misses.incrementAndGet();
+    }
+
+    public void recordFirstFrame(long delayMs)
+    {
+        timeToFirstFrame.record(delayMs);
+    }
+
+    public void recordStuck()
+    {
+        stuck.incrementAndGet();
+    }
+
+    /**
+     * Adds everything recorded here to other stats, such as a total
+     *
+     * @param target the stats to add to
+     */
+    public void mergeInto(PlaybackStats target)
+    {
+        frameIntervals.mergeInto(target.frameIntervals);
+        timeToFirstFrame.mergeInto(target.timeToFirstFrame);
+        target.frames.addAndGet(frames.get());
+        target.misses.addAndGet(misses.get());
+        target.stuck.addAndGet(stuck.get());
+    }
+
+    /**
+     * @return the time between frames sent while playing, in milliseconds
+     */
+    public Histogram getFrameIntervals()
+    {
+        return frameIntervals;
+    }
+
+    /**
+     * @return the time from a track starting to its first frame being sent,
+     *         in milliseconds
+     */
+    public Histogram getTimeToFirstFrame()
+    {
+        return timeToFirstFrame;
+    }
+
+    public long getFrames()
+    {
+        return frames.get();
+    }
+
+    /**
+     * @return how many times a frame was due while a track was playing, but
+     *         none was available
+     */
+    public long getMisses()
+    {
+        return misses.get();
+    }
+
+    /**
+     * @return how many times lavaplayer reported a track as stuck
+     */
+    public long getStuck()
+    {
+        return stuck.get();
+    }
+
+    @Override
+    public String toString()
+    {
+        return "frames=" + getFrames()
+                + " missed=" + getMisses()
+                + " stuck=" + getStuck()
+                + " interval(p50/p99/max)=" + frameIntervals.getPercentile(50) + "/" + frameIntervals.getPercentile(99) + "/" + frameIntervals.getMax() + "ms"
+                + " firstframe(p50/p95)=" + timeToFirstFrame.getPercentile(50) + "/" + timeToFirstFrame.getPercentile(95) + "ms";
+    }
+}
@@ -0,0 +1,115 @@
+/*
+ * Copyright 2026 John Grosh <john.a.grosh@gmail.com>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.jagrosh.jmusicbot.metrics;
+
+/**
+ * Writes metrics in the Prometheus text exposition format. Each metric is
+ * started with {@link #metric} and followed by its samples.
+ *
+ * @author John Grosh (john.a.grosh@gmail.com)
+ */
+public class PrometheusWriter
+{
+    private final StringBuilder sb = new StringBuilder();
+
+    /**
+     * Starts a metric
+     *
+     * @param name the metric name
+     * @param type counter, gauge or histogram
+     * @param help a description of the metric
+     * @return this writer
+     */
+    public PrometheusWriter metric(String name, String type, String help)
+    {
+        sb.append("# HELP ").append(name).append(' ').append(help).append('\n');
+        sb.append("# TYPE ").append(name).append(' ').append(type).append('\n');
+        return this;
+    }
+
+    /**
+     * Writes a sample of the current metric
+     *
+     * @param name the sample name
+     * @param value the value
+     * @param labels alternating label names and values
+     * @return this writer
+     */
+    public PrometheusWriter sample(String name, double value, String... labels)
+    {
+        sb.append(name);
+        appendLabels(labels, null);
+        sb.append(' ').append(format(value)).append('\n');
+        return this;
+    }
+
+    /**
+     * Writes the samples of a histogram
+     *
+     * @param name the metric name
+     * @param histogram the histogram
+     * @param labels alternating label names and values
+     * @return this writer
+     */
+    public PrometheusWriter histogram(String name, Histogram histogram, String... labels)
+    {
+        long[] bounds = histogram.getBounds();
+        long cumulative = 0;
+        for(int i=0; i<=bounds.length; i++)
+        {
+            cumulative += histogram.getBucketCount(i);
+            sb.append(name).append("_bucket");
+            appendLabels(labels, i < bounds.length ? Long.toString(bounds[i]) : "+Inf");
+            sb.append(' ').append(cumulative).append('\n');
+        }
+        sample(name + "_sum", histogram.getSum(), labels);
+        // the count must match the +Inf bucket even if values were recorded meanwhile
+        sample(name + "_count", cumulative, labels);
+        return this;
+    }
+
+    private void appendLabels(String[] labels, String le)
+    {
+        if(labels.length == 0 && le == null)
+            return;
+        sb.append('{');
+        for(int i=0; i+1<labels.length; i+=2)
+        {
+            if(i > 0)
+                sb.append(',');
+            sb.append(labels[i]).append("=\"").append(escape(labels[i+1])).append('"');
+        }
+        if(le != null)
+            sb.append(labels.length == 0 ? "" : ",").append("le=\"").append(le).append('"');
+        sb.append('}');
+    }
+
+    private static String escape(String value)
+    {
+        return value.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+    }
+
+    private static String format(double value)
+    {
+        return value == Math.rint(value) && !Double.isInfinite(value) ? Long.toString((long) value) : Double.toString(value);
+    }
+
+    @Override
+    public String toString()
+    {
+        return sb.toString();
+    }
+}
@@ -0,0 +1,145 @@
+/*
+ * Copyright 2026 John Grosh <john.a.grosh@gmail.com>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.jagrosh.jmusicbot.metrics;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * How each registered audio source manager answers loadItem: how often it
+ * loads something, declines the identifier or throws, how long that takes,
+ * and how many calls are running right now. Managers are kept in the order
+ * they were registered, which is the order lavaplayer asks them in.
+ *
+ * @author John Grosh (john.a.grosh@gmail.com)
+ */
+public class SourceManagerMetrics
+{
+    private final Map<String, Stats> managers = new LinkedHashMap<>();
+
+    /**
+     * @param sourceName the name of an audio source manager
+     * @return the stats for that manager
+     */
+    public synchronized Stats forManager(String sourceName)
+    {
+        return managers.computeIfAbsent(sourceName, name -> new Stats());
+    }
+
+    /**
+     * @return the stats for each manager, in registration order
+     */
+    public synchronized Map<String, Stats> getManagers()
+    {
+        return Collections.unmodifiableMap(new LinkedHashMap<>(managers));
+    }
+
+    public static class Stats
+    {
+        private final Histogram hitLatency = new Histogram();
+        private final Histogram missLatency = new Histogram();
+        private final AtomicLong hits = new AtomicLong();
+        private final AtomicLong misses = new AtomicLong();
+        private final AtomicLong errors = new AtomicLong();
+        private final AtomicLong inFlight = new AtomicLong();
+
+        /**
+         * Marks the start of a loadItem call
+         *
+         * @return the start time, to pass to one of the record methods
+         */
+        public long start()
+        {
+            inFlight.incrementAndGet();
+            return System.nanoTime();
+        }
+
+        public void recordHit(long start)
+        {
+            hits.incrementAndGet();
+            hitLatency.record(finish(start));
+        }
+
+        public void recordMiss(long start)
+        {
+            misses.incrementAndGet();
+            missLatency.record(finish(start));
+        }
+
+        public void recordError(long start)
+        {
+            errors.incrementAndGet();
+            hitLatency.record(finish(start));
+        }
+
+        private long finish(long start)
+        {
+            inFlight.decrementAndGet();
+            return (System.nanoTime() - start) / 1000000;
+        }
+
+        /**
+         * @return the time taken by calls that loaded something or threw, in
+         *         milliseconds
+         */
+        public Histogram getHitLatency()
+        {
+            return hitLatency;
+        }
+
+        /**
+         * @return the time taken to decline an identifier, in milliseconds;
+         *         this is paid by every load that reaches a later manager
+         */
+        public Histogram getMissLatency()
+        {
+            return missLatency;
+        }
+
+        public long getHits()
+        {
+            return hits.get();
+        }
+
+        public long getMisses()
+        {
+            return misses.get();
+        }
+
+        public long getErrors()
+        {
+            return errors.get();
+        }
+
+        public long getInFlight()
+        {
+            return inFlight.get();
+        }
+
+        @Override
+        public String toString()
+        {
+            return "hits=" + getHits()
+                    + " misses=" + getMisses()
+                    + " errors=" + getErrors()
+                    + " inflight=" + getInFlight()
+                    + " hit(p50/p95/max)=" + hitLatency.getPercentile(50) + "/" + hitLatency.getPercentile(95) + "/" + hitLatency.getMax() + "ms"
+                    + " miss(p50/p95/max)=" + missLatency.getPercentile(50) + "/" + missLatency.getPercentile(95) + "/" + missLatency.getMax() + "ms";
+        }
+    }
+}
@@ -16,17 +16,19 @@
 package com.jagrosh.jmusicbot.playlist;
 
 import com.jagrosh.jmusicbot.BotConfig;
+import com.jagrosh.jmusicbot.audio.PlayerManager;
 import com.jagrosh.jmusicbot.utils.OtherUtil;
 import com.sedmelluq.discord.lavaplayer.player.AudioLoadResultHandler;
-import com.sedmelluq.discord.lavaplayer.player.AudioPlayerManager;
 import com.sedmelluq.discord.lavaplayer.tools.FriendlyException;
 import com.sedmelluq.discord.lavaplayer.track.AudioPlaylist;
 import com.sedmelluq.discord.lavaplayer.track.AudioTrack;
 import java.io.File;
 import java.io.IOException;
 import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.*;
 import java.util.function.Consumer;
+import java.util.function.IntConsumer;
 import java.util.stream.Collectors;
 
 /**
@@ -79,6 +81,7 @@ public class PlaylistLoader
     public void deletePlaylist(String name) throws IOException
     {
         Files.delete(OtherUtil.getPath(config.getPlaylistsFolder()+File.separator+name+".txt"));
+        Files.deleteIfExists(getCachePath(name));
     }
     
     public void writePlaylist(String name, String text) throws IOException
@@ -86,6 +89,11 @@ public class PlaylistLoader
         Files.write(OtherUtil.getPath(config.getPlaylistsFolder()+File.separator+name+".txt"), text.trim().getBytes());
     }
     
+    private Path getCachePath(String name)
+    {
+        return OtherUtil.getPath(config.getPlaylistsFolder()+File.separator+name+".cache");
+    }
+    
     public Playlist getPlaylist(String name)
     {
         if(!getPlaylistNames().contains(name))
@@ -96,7 +104,9 @@ public class PlaylistLoader
             {
                 boolean[] shuffle = {false};
                 List<String> list = new ArrayList<>();
-                Files.readAllLines(OtherUtil.getPath(config.getPlaylistsFolder()+File.separator+name+".txt")).forEach(str -> 
+                Path path = OtherUtil.getPath(config.getPlaylistsFolder()+File.separator+name+".txt");
+                long modified = Files.getLastModifiedTime(path).toMillis();
+                Files.readAllLines(path).forEach(str -> 
                 {
                     String s = str.trim();
                     if(s.isEmpty())
@@ -110,9 +120,7 @@ public class PlaylistLoader
                     else
                         list.add(s);
                 });
-                if(shuffle[0])
-                    shuffle(list);
-                return new Playlist(name, list, shuffle[0]);
+                return new Playlist(name, list, shuffle[0], getCachePath(name), modified);
             }
             else
             {
@@ -127,7 +135,7 @@ public class PlaylistLoader
     }
     
     
-    private static <T> void shuffle(List<T> list)
+    static <T> void shuffle(List<T> list)
     {
         for(int first =0; first<list.size(); first++)
         {
@@ -138,103 +146,289 @@ public class PlaylistLoader
         }
     }
     
+    private static int[] permutation(int size)
+    {
+        int[] order = new int[size];
+        for(int i=0; i<size; i++)
+        {
+            int j = (int)(Math.random()*(i+1));
+            order[i] = order[j];
+            order[j] = i;
+        }
+        return order;
+    }
+    
     
     public class Playlist
     {
         private final String name;
         private final List<String> items;
         private final boolean shuffle;
+        // the order items are played in when shuffling; items stay in file order
+        private final int[] order;
         private final List<AudioTrack> tracks = new LinkedList<>();
         private final List<PlaylistLoadError> errors = new LinkedList<>();
+        private final Path cachePath;
+        private final long modified;
+        private TrackCache cache;
         private boolean loaded = false;
         
-        private Playlist(String name, List<String> items, boolean shuffle)
+        private Playlist(String name, List<String> items, boolean shuffle, Path cachePath, long modified)
         {
             this.name = name;
             this.items = items;
             this.shuffle = shuffle;
+            this.order = shuffle ? permutation(items.size()) : null;
+            this.cachePath = cachePath;
+            this.modified = modified;
+        }
+        
+        /**
+         * Creates a stream that plays through this playlist while only keeping
+         * a few tracks loaded at a time, instead of loading every item. This
+         * is meant for long autoplaylists. Nothing is loaded until the stream
+         * is started.
+         * 
+         * @param manager the manager to load items with
+         * @param guildId the guild the items are loaded for
+         * @param prefetch the number of tracks to keep loaded ahead
+         * @param onReady run when tracks become available
+         * @param onEnd run if the stream runs out of items while nothing is
+         *              available to be played
+         * @return the stream
+         */
+        public PlaylistStream stream(PlayerManager manager, long guildId, int prefetch, Runnable onReady, Runnable onEnd)
+        {
+            return new PlaylistStream(this, manager, guildId, prefetch, onReady, onEnd);
+        }
+        
+        /**
+         * @param position the position in play order
+         * @return the index of the item in the file
+         */
+        int getFileIndex(int position)
+        {
+            return order == null ? position : order[position];
+        }
+        
+        String getItem(int position)
+        {
+            return items.get(getFileIndex(position));
+        }
+        
+        boolean isShuffle()
+        {
+            return shuffle;
+        }
+        
+        BotConfig getConfig()
+        {
+            return config;
+        }
+        
+        synchronized TrackCache getCache()
+        {
+            if(cache == null)
+                cache = TrackCache.read(cachePath, modified);
+            return cache;
         }
         
-        public void loadTracks(AudioPlayerManager manager, Consumer<AudioTrack> consumer, Runnable callback)
+        /**
+         * Loads every item of this playlist. The consumer is given the tracks of
+         * each item as a batch (a single track, or all tracks of a playlist item),
+         * and the callback is run after the last item has finished loading.
+         */
+        public void loadTracks(PlayerManager manager, long guildId, Consumer<List<AudioTrack>> consumer, Runnable callback)
+        {
+            loadTracks(manager, guildId, consumer, null, callback);
+        }
+        
+        /**
+         * Loads every item of this playlist, resolving several items at once.
+         * Batches are still given to the consumer in file order: each one as
+         * soon as its item and every item before it have loaded, so the first
+         * tracks can start playing while the rest are loading.
+         * 
+         * @param manager the manager to load items with
+         * @param guildId the guild the items are loaded for
+         * @param consumer given the tracks of each item, in order
+         * @param progress given the number of items that have finished loading
+         *                 each time one finishes; may be null
+         * @param callback run after the last item has been given to the consumer
+         */
+        public void loadTracks(PlayerManager manager, long guildId, Consumer<List<AudioTrack>> consumer, IntConsumer progress, Runnable callback)
         {
             if(loaded)
                 return;
             loaded = true;
-            for(int i=0; i<items.size(); i++)
+            if(items.isEmpty())
             {
-                boolean last = i+1 == items.size();
-                int index = i;
-                manager.loadItemOrdered(name, items.get(i), new AudioLoadResultHandler() 
+                if(callback != null)
+                    callback.run();
+                return;
+            }
+            new ParallelLoad(manager, guildId, consumer, progress, callback).start();
+        }
+        
+        private class ParallelLoad
+        {
+            private final PlayerManager manager;
+            private final long guildId;
+            private final Consumer<List<AudioTrack>> consumer;
+            private final IntConsumer progress;
+            private final Runnable callback;
+            private final TrackCache cache;
+            // a List<AudioTrack> or PlaylistLoadError for each finished item
+            // that has not been delivered yet
+            private final Object[] results = new Object[items.size()];
+            private int nextToLoad = 0;
+            private int nextToDeliver = 0;
+            private int finished = 0;
+            
+            private ParallelLoad(PlayerManager manager, long guildId, Consumer<List<AudioTrack>> consumer, IntConsumer progress, Runnable callback)
+            {
+                this.manager = manager;
+                this.guildId = guildId;
+                this.consumer = consumer;
+                this.progress = progress;
+                this.callback = callback;
+                this.cache = getCache();
+            }
+            
+            private void start()
+            {
+                for(int i=0; i<Math.min(config.getPlaylistLoadThreads(), items.size()); i++)
+                    loadNext();
+            }
+            
+            private void loadNext()
+            {
+                // cached items are finished right here, so keep going until
+                // an item actually has to be loaded
+                while(true)
                 {
-                    private void done()
+                    int index;
+                    synchronized(this)
                     {
-                        if(last)
-                        {
-                            if(shuffle)
-                                shuffleTracks();
-                            if(callback != null)
-                                callback.run();
-                        }
+                        if(nextToLoad >= items.size())
+                            return;
+                        index = nextToLoad++;
                     }
-
-                    @Override
-                    public void trackLoaded(AudioTrack at) 
+                    List<AudioTrack> cached = cache.get(manager, getItem(index));
+                    if(cached == null)
                     {
-                        if(config.isTooLong(at))
-                            errors.add(new PlaylistLoadError(index, items.get(index), "This track is longer than the allowed maximum"));
-                        else
-                        {
-                            at.setUserData(0L);
-                            tracks.add(at);
-                            consumer.accept(at);
-                        }
-                        done();
+                        manager.loadItemBulk(guildId, getItem(index), new ItemHandler(this, index));
+                        return;
                     }
-
-                    @Override
-                    public void playlistLoaded(AudioPlaylist ap) 
+                    complete(index, cached.size() == 1 ? single(index, cached.get(0)) : multiple(cached));
+                }
+            }
+            
+            private Object single(int index, AudioTrack at)
+            {
+                if(config.isTooLong(at))
+                    return new PlaylistLoadError(getFileIndex(index), getItem(index), "This track is longer than the allowed maximum");
+                at.setUserData(0L);
+                return Collections.singletonList(at);
+            }
+            
+            private Object multiple(List<AudioTrack> loaded)
+            {
+                if(shuffle)
+                    shuffle(loaded);
+                loaded.removeIf(track -> config.isTooLong(track));
+                loaded.forEach(at -> at.setUserData(0L));
+                return loaded;
+            }
+            
+            private void finish(int index, Object result)
+            {
+                if(!complete(index, result))
+                    loadNext();
+            }
+            
+            @SuppressWarnings("unchecked")
+            private boolean complete(int index, Object result)
+            {
+                boolean done;
+                synchronized(this)
+                {
+                    results[index] = result;
+                    finished++;
+                    while(nextToDeliver < results.length && results[nextToDeliver] != null)
                     {
-                        if(ap.isSearchResult())
-                        {
-                            trackLoaded(ap.getTracks().get(0));
-                        }
-                        else if(ap.getSelectedTrack()!=null)
-                        {
-                            trackLoaded(ap.getSelectedTrack());
-                        }
-                        else
+                        Object next = results[nextToDeliver];
+                        results[nextToDeliver++] = null;
+                        if(next instanceof PlaylistLoadError)
+                            errors.add((PlaylistLoadError) next);
+                        else if(!((List<AudioTrack>) next).isEmpty())
                         {
-                            List<AudioTrack> loaded = new ArrayList<>(ap.getTracks());
-                            if(shuffle)
-                                for(int first =0; first<loaded.size(); first++)
-                                {
-                                    int second = (int)(Math.random()*loaded.size());
-                                    AudioTrack tmp = loaded.get(first);
-                                    loaded.set(first, loaded.get(second));
-                                    loaded.set(second, tmp);
-                                }
-                            loaded.removeIf(track -> config.isTooLong(track));
-                            loaded.forEach(at -> at.setUserData(0L));
-                            tracks.addAll(loaded);
-                            loaded.forEach(at -> consumer.accept(at));
+                            tracks.addAll((List<AudioTrack>) next);
+                            consumer.accept((List<AudioTrack>) next);
                         }
-                        done();
                     }
+                    if(progress != null)
+                        progress.accept(finished);
+                    done = nextToDeliver == results.length;
+                }
+                if(done)
+                {
+                    cache.save();
+                    if(shuffle)
+                        shuffleTracks();
+                    if(callback != null)
+                        callback.run();
+                }
+                return done;
+            }
+        }
+        
+        private class ItemHandler implements AudioLoadResultHandler
+        {
+            private final ParallelLoad load;
+            private final int index;
+            
+            private ItemHandler(ParallelLoad load, int index)
+            {
+                this.load = load;
+                this.index = index;
+            }
 
-                    @Override
-                    public void noMatches() 
-                    {
-                        errors.add(new PlaylistLoadError(index, items.get(index), "No matches found."));
-                        done();
-                    }
+            @Override
+            public void trackLoaded(AudioTrack at) 
+            {
+                load.cache.put(load.manager, getItem(index), Collections.singletonList(at));
+                load.finish(index, load.single(index, at));
+            }
 
-                    @Override
-                    public void loadFailed(FriendlyException fe) 
-                    {
-                        errors.add(new PlaylistLoadError(index, items.get(index), "Failed to load track: "+fe.getLocalizedMessage()));
-                        done();
-                    }
-                });
+            @Override
+            public void playlistLoaded(AudioPlaylist ap) 
+            {
+                if(ap.isSearchResult())
+                {
+                    trackLoaded(ap.getTracks().get(0));
+                }
+                else if(ap.getSelectedTrack()!=null)
+                {
+                    trackLoaded(ap.getSelectedTrack());
+                }
+                else
+                {
+                    load.cache.put(load.manager, getItem(index), ap.getTracks());
+                    load.finish(index, load.multiple(new ArrayList<>(ap.getTracks())));
+                }
+            }
+
+            @Override
+            public void noMatches() 
+            {
+                load.finish(index, new PlaylistLoadError(getFileIndex(index), getItem(index), "No matches found."));
+            }
+
+            @Override
+            public void loadFailed(FriendlyException fe) 
+            {
+                load.finish(index, new PlaylistLoadError(getFileIndex(index), getItem(index), "Failed to load track: "+fe.getLocalizedMessage()));
             }
         }
         
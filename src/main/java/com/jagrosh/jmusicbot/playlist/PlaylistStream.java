@@ -0,0 +1,226 @@
+/*
+ * Copyright 2026 John Grosh (jagrosh).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.jagrosh.jmusicbot.playlist;
+
+import com.jagrosh.jmusicbot.audio.PlayerManager;
+import com.jagrosh.jmusicbot.playlist.PlaylistLoader.Playlist;
+import com.sedmelluq.discord.lavaplayer.player.AudioLoadResultHandler;
+import com.sedmelluq.discord.lavaplayer.tools.FriendlyException;
+import com.sedmelluq.discord.lavaplayer.track.AudioPlaylist;
+import com.sedmelluq.discord.lavaplayer.track.AudioTrack;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * Plays through a playlist one item at a time, loading the next items only
+ * when fewer than a few tracks are left, so a long playlist never has more
+ * than a handful of tracks in memory. Items are loaded one at a time and in
+ * play order (which is shuffled when the playlist uses #shuffle).
+ *
+ * @author John Grosh (john.a.grosh@gmail.com)
+ */
+public class PlaylistStream
+{
+    // how many items to load between writes of the track cache
+    private final static int SAVE_INTERVAL = 25;
+
+    private final Playlist playlist;
+    private final PlayerManager manager;
+    private final long guildId;
+    private final int prefetch;
+    private final Runnable onReady;
+    private final Runnable onEnd;
+    private final TrackCache cache;
+    private final Deque<AudioTrack> window = new ArrayDeque<>();
+    private int position = 0;
+    private boolean loading = false;
+    private boolean closed = false;
+    private boolean produced = false;
+
+    PlaylistStream(Playlist playlist, PlayerManager manager, long guildId, int prefetch, Runnable onReady, Runnable onEnd)
+    {
+        this.playlist = playlist;
+        this.manager = manager;
+        this.guildId = guildId;
+        this.prefetch = prefetch;
+        this.onReady = onReady;
+        this.onEnd = onEnd;
+        this.cache = playlist.getCache();
+    }
+
+    /**
+     * Starts loading the first tracks
+     */
+    public void start()
+    {
+        fill();
+    }
+
+    /**
+     * Takes the next track and starts loading more if needed
+     *
+     * @return the next track, or null if none is loaded yet
+     */
+    public AudioTrack poll()
+    {
+        AudioTrack track;
+        synchronized(this)
+        {
+            track = window.poll();
+        }
+        fill();
+        return track;
+    }
+
+    /**
+     * @return true if every item has been loaded and played
+     */
+    public synchronized boolean isFinished()
+    {
+        return position >= playlist.getItems().size() && !loading && window.isEmpty();
+    }
+
+    /**
+     * @return true if this stream has loaded any tracks at all
+     */
+    public synchronized boolean hasProduced()
+    {
+        return produced;
+    }
+
+    /**
+     * Stops loading items; loaded tracks are dropped
+     */
+    public void close()
+    {
+        synchronized(this)
+        {
+            closed = true;
+            window.clear();
+        }
+        cache.save();
+    }
+
+    private void fill()
+    {
+        // cached items are added right here, so keep going until an item
+        // actually has to be loaded
+        while(true)
+        {
+            String item;
+            synchronized(this)
+            {
+                if(closed || loading || window.size() >= prefetch || position >= playlist.getItems().size())
+                    return;
+                loading = true;
+                item = playlist.getItem(position++);
+            }
+            List<AudioTrack> cached = cache.get(manager, item);
+            if(cached == null)
+            {
+                manager.loadItemBulk(guildId, item, new ItemHandler(item));
+                return;
+            }
+            loaded(cached.size() == 1 ? cached : shuffled(cached));
+        }
+    }
+
+    private List<AudioTrack> shuffled(List<AudioTrack> tracks)
+    {
+        if(playlist.isShuffle())
+            PlaylistLoader.shuffle(tracks);
+        return tracks;
+    }
+
+    private void loaded(List<AudioTrack> tracks)
+    {
+        boolean added = false, end, save;
+        synchronized(this)
+        {
+            loading = false;
+            if(!closed)
+            {
+                for(AudioTrack at: tracks)
+                {
+                    if(playlist.getConfig().isTooLong(at))
+                        continue;
+                    at.setUserData(0L);
+                    window.add(at);
+                    added = true;
+                }
+            }
+            produced |= added;
+            end = !closed && isFinished();
+            save = end || position % SAVE_INTERVAL == 0;
+        }
+        if(save)
+            cache.save();
+        if(added)
+            onReady.run();
+        else if(end)
+            onEnd.run();
+    }
+
+    private class ItemHandler implements AudioLoadResultHandler
+    {
+        private final String item;
+
+        private ItemHandler(String item)
+        {
+            this.item = item;
+        }
+
+        @Override
+        public void trackLoaded(AudioTrack at)
+        {
+            cache.put(manager, item, Collections.singletonList(at));
+            loaded(Collections.singletonList(at));
+            fill();
+        }
+
+        @Override
+        public void playlistLoaded(AudioPlaylist ap)
+        {
+            if(ap.isSearchResult())
+                trackLoaded(ap.getTracks().get(0));
+            else if(ap.getSelectedTrack() != null)
+                trackLoaded(ap.getSelectedTrack());
+            else
+            {
+                cache.put(manager, item, ap.getTracks());
+                loaded(shuffled(new ArrayList<>(ap.getTracks())));
+                fill();
+            }
+        }
+
+        @Override
+        public void noMatches()
+        {
+            loaded(Collections.emptyList());
+            fill();
+        }
+
+        @Override
+        public void loadFailed(FriendlyException fe)
+        {
+            loaded(Collections.emptyList());
+            fill();
+        }
+    }
+}
@@ -0,0 +1,166 @@
+/*
+ * Copyright 2026 John Grosh (jagrosh).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.jagrosh.jmusicbot.playlist;
+
+import com.jagrosh.jmusicbot.utils.OtherUtil;
+import com.sedmelluq.discord.lavaplayer.player.AudioPlayerManager;
+import com.sedmelluq.discord.lavaplayer.tools.io.MessageInput;
+import com.sedmelluq.discord.lavaplayer.tools.io.MessageOutput;
+import com.sedmelluq.discord.lavaplayer.track.AudioTrack;
+import com.sedmelluq.discord.lavaplayer.track.DecodedTrackHolder;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Remembers the tracks each line of a playlist file resolved to, encoded with
+ * {@link AudioPlayerManager#encodeTrack}, so loading the playlist again only
+ * has to decode them. The cache is kept next to the playlist and is thrown
+ * away whenever the playlist file is modified.
+ *
+ * @author John Grosh (john.a.grosh@gmail.com)
+ */
+public class TrackCache
+{
+    private final static Logger LOG = LoggerFactory.getLogger(TrackCache.class);
+    private final Path path;
+    private final long modified;
+    private final Map<String, String> items = new ConcurrentHashMap<>();
+    private volatile boolean changed = false;
+
+    private TrackCache(Path path, long modified)
+    {
+        this.path = path;
+        this.modified = modified;
+    }
+
+    /**
+     * Reads the cache for a playlist file
+     *
+     * @param path the cache file
+     * @param modified the last-modified time of the playlist file
+     * @return the cached tracks, or an empty cache if there are none for this
+     *         version of the playlist
+     */
+    public static TrackCache read(Path path, long modified)
+    {
+        TrackCache cache = new TrackCache(path, modified);
+        try
+        {
+            JSONObject o = new JSONObject(new String(Files.readAllBytes(path), StandardCharsets.UTF_8));
+            if(o.getLong("modified") == modified)
+            {
+                JSONObject tracks = o.getJSONObject("items");
+                tracks.keySet().forEach(item -> cache.items.put(item, tracks.getString(item)));
+            }
+        }
+        catch(NoSuchFileException ignore) {}
+        catch(IOException | JSONException ex)
+        {
+            LOG.warn("Failed to read " + path + ": " + ex);
+        }
+        return cache;
+    }
+
+    /**
+     * @param manager the manager to decode tracks with
+     * @param item the playlist line
+     * @return the tracks the line resolved to, or null if it isn't cached or
+     *         its tracks can no longer be decoded
+     */
+    public List<AudioTrack> get(AudioPlayerManager manager, String item)
+    {
+        String encoded = items.get(item);
+        if(encoded == null)
+            return null;
+        try
+        {
+            MessageInput input = new MessageInput(new ByteArrayInputStream(Base64.getDecoder().decode(encoded)));
+            List<AudioTrack> tracks = new ArrayList<>();
+            DecodedTrackHolder holder;
+            while((holder = manager.decodeTrack(input)) != null)
+            {
+                if(holder.decodedTrack == null)
+                    return null;
+                tracks.add(holder.decodedTrack);
+            }
+            return tracks;
+        }
+        catch(IOException | IllegalArgumentException ex)
+        {
+            LOG.debug("Failed to decode cached tracks for " + item + ": " + ex);
+            return null;
+        }
+    }
+
+    /**
+     * @param manager the manager to encode tracks with
+     * @param item the playlist line
+     * @param tracks the tracks the line resolved to
+     */
+    public void put(AudioPlayerManager manager, String item, List<AudioTrack> tracks)
+    {
+        try
+        {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            MessageOutput output = new MessageOutput(bytes);
+            for(AudioTrack track: tracks)
+                manager.encodeTrack(output, track);
+            output.finish();
+            items.put(item, Base64.getEncoder().encodeToString(bytes.toByteArray()));
+            changed = true;
+        }
+        catch(Exception ex)
+        {
+            // some sources can't encode their tracks; those lines are simply resolved every time
+            LOG.debug("Failed to encode tracks for " + item + ": " + ex);
+        }
+    }
+
+    /**
+     * Writes the cache if anything was added since it was read
+     */
+    public synchronized void save()
+    {
+        if(!changed)
+            return;
+        changed = false;
+        JSONObject o = new JSONObject();
+        o.put("modified", modified);
+        o.put("items", new JSONObject(items));
+        try
+        {
+            OtherUtil.writeAtomically(path, o.toString().getBytes(StandardCharsets.UTF_8));
+        }
+        catch(IOException ex)
+        {
+            LOG.warn("Failed to write " + path + ": " + ex);
+        }
+    }
+}
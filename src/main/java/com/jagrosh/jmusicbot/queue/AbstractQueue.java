@@ -16,7 +16,6 @@
 package com.jagrosh.jmusicbot.queue;
 
 import java.util.ArrayList;
-import java.util.LinkedList;
 import java.util.List;
 
 /**
@@ -28,13 +27,30 @@ public abstract class AbstractQueue<T extends Queueable>
 {
     protected AbstractQueue(AbstractQueue<T> queue)
     {
-        this.list = queue != null ? queue.getList() : new LinkedList<>();
+        this.list = queue != null ? queue.getList() : new IndexedList<>();
     }
 
     protected final List<T> list;
 
     public abstract int add(T item);
 
+    /**
+     * Adds several items at once, placing each as {@link #add(Queueable)} would
+     * @param items The items to add, in order
+     * @return the position of the earliest added item, or -1 if none were added
+     */
+    public int addAll(List<T> items)
+    {
+        int first = -1;
+        for(T item: items)
+        {
+            int index = add(item);
+            if(first == -1 || index < first)
+                first = index;
+        }
+        return first;
+    }
+
     public void addAt(int index, T item)
     {
         if(index >= list.size())
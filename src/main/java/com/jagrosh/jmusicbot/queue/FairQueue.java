@@ -15,10 +15,26 @@
  */
 package com.jagrosh.jmusicbot.queue;
 
+import java.util.ArrayList;
 import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 /**
+ * A queue that is laid out in rounds, where each requester gets at most one
+ * entry per round, and each round is ordered by when the requester first
+ * appeared in the current first round.
+ *
+ * To avoid scanning the whole queue on every add, a per-requester round index
+ * (entry count, in round order) is kept alongside the list. The index stays
+ * valid across add, addAll, pull and removeAll; any other modification marks
+ * it stale, and it is rebuilt (and verified against the layout) on the next
+ * add. If the list no longer follows the round layout (for example after a
+ * track was put at the front), the original linear scan is used until the
+ * next modification that might restore it.
  *
  * @author John Grosh (jagrosh)
  * @param <T>
@@ -32,12 +48,176 @@ public class FairQueue<T extends Queueable> extends AbstractQueue<T>
 
     protected final Set<Long> set = new HashSet<>();
 
+    // requester -> number of entries, iterated in round order
+    private final LinkedHashMap<Long, int[]> rounds = new LinkedHashMap<>();
+    private boolean indexed = false, stale = true;
+
     @Override
     public int add(T item)
+    {
+        int index = ensureIndex() ? indexedPosition(item.getIdentifier()) : scanPosition(item.getIdentifier());
+        list.add(index, item);
+        return index;
+    }
+
+    /**
+     * Places the items as adding them one by one would. When the list doesn't
+     * follow the round layout, a batch from a single requester is placed in one
+     * pass over the list instead of a scan per item.
+     */
+    @Override
+    public int addAll(List<T> items)
+    {
+        if(items.isEmpty() || ensureIndex())
+            return super.addAll(items);
+        long identifier = items.get(0).getIdentifier();
+        for(T item: items)
+            if(item.getIdentifier() != identifier)
+                return super.addAll(items);
+
+        int start;
+        for(start=list.size()-1; start>-1; start--)
+            if(list.get(start).getIdentifier() == identifier)
+                break;
+        start++;
+
+        // each item goes after the run of distinct requesters that follows the
+        // previous one, which is where scanPosition would put it
+        List<T> tail = new ArrayList<>(list.subList(start, list.size()));
+        List<T> merged = new ArrayList<>(tail.size() + items.size());
+        int next = 0, first = -1;
+        for(T item: items)
+        {
+            set.clear();
+            for(; next<tail.size() && set.add(tail.get(next).getIdentifier()); next++)
+                merged.add(tail.get(next));
+            merged.add(item);
+            if(first == -1)
+                first = start + merged.size() - 1;
+        }
+        merged.addAll(tail.subList(next, tail.size()));
+        list.subList(start, list.size()).clear();
+        list.addAll(merged);
+        invalidate();
+        return first;
+    }
+
+    @Override
+    public void addAt(int index, T item)
+    {
+        super.addAt(index, item);
+        invalidate();
+    }
+
+    @Override
+    public T pull()
+    {
+        T item = super.pull();
+        if(indexed)
+        {
+            // the head belongs to the first requester in round order; their next
+            // entry now ends the new first round, so they move to the back
+            Iterator<Long> it = rounds.keySet().iterator();
+            if(it.hasNext() && it.next() == item.getIdentifier())
+            {
+                int[] count = rounds.remove(item.getIdentifier());
+                if(--count[0] > 0)
+                    rounds.put(item.getIdentifier(), count);
+            }
+            else
+                invalidate();
+        }
+        else
+            invalidate();
+        return item;
+    }
+
+    @Override
+    public T remove(int index)
+    {
+        invalidate();
+        return super.remove(index);
+    }
+
+    @Override
+    public int removeAll(long identifier)
+    {
+        int count = super.removeAll(identifier);
+        if(indexed)
+            rounds.remove(identifier);
+        else
+            invalidate();
+        return count;
+    }
+
+    @Override
+    public void clear()
+    {
+        super.clear();
+        rounds.clear();
+        indexed = true;
+    }
+
+    private void invalidate()
+    {
+        indexed = false;
+        stale = true;
+    }
+
+    @Override
+    public void skip(int number)
+    {
+        super.skip(number);
+        invalidate();
+    }
+
+    @Override
+    public T moveItem(int from, int to)
+    {
+        invalidate();
+        return super.moveItem(from, to);
+    }
+
+    /**
+     * Position after the requester's next round slot: every earlier requester
+     * contributes up to count+1 entries, every later one up to count entries
+     */
+    private int indexedPosition(long identifier)
+    {
+        int[] own = rounds.get(identifier);
+        if(own == null)
+        {
+            rounds.put(identifier, new int[]{1});
+            return roundPosition(identifier, 0);
+        }
+        int round = own[0];
+        int index = roundPosition(identifier, round);
+        own[0]++;
+        return index;
+    }
+
+    private int roundPosition(long identifier, int round)
+    {
+        int index = 0;
+        boolean before = true;
+        for(Map.Entry<Long, int[]> entry: rounds.entrySet())
+        {
+            if(entry.getKey() == identifier)
+            {
+                before = false;
+                index += round;
+            }
+            else
+                index += Math.min(entry.getValue()[0], before ? round + 1 : round);
+        }
+        return index;
+    }
+
+    private int scanPosition(long identifier)
     {
         int lastIndex;
         for(lastIndex=list.size()-1; lastIndex>-1; lastIndex--)
-            if(list.get(lastIndex).getIdentifier() == item.getIdentifier())
+            if(list.get(lastIndex).getIdentifier() == identifier)
                 break;
         lastIndex++;
         set.clear();
@@ -47,8 +227,44 @@ public class FairQueue<T extends Queueable> extends AbstractQueue<T>
                 break;
             set.add(list.get(lastIndex).getIdentifier());
         }
-        list.add(lastIndex, item);
         return lastIndex;
     }
 
+    /**
+     * Rebuilds the round index from the list if it is stale
+     *
+     * @return true if the list follows the round layout and the index can be used
+     */
+    private boolean ensureIndex()
+    {
+        if(indexed)
+            return true;
+        if(!stale)
+            return false;
+        stale = false;
+        rounds.clear();
+        for(T item: list)
+            rounds.computeIfAbsent(item.getIdentifier(), id -> new int[1])[0]++;
+
+        // verify that the list is made of rounds ordered by first appearance
+        List<Long> active = new ArrayList<>(rounds.keySet());
+        Iterator<T> it = list.iterator();
+        for(int round = 0; !active.isEmpty(); round++)
+        {
+            List<Long> next = new ArrayList<>(active.size());
+            for(Long identifier: active)
+            {
+                if(it.next().getIdentifier() != identifier)
+                {
+                    rounds.clear();
+                    return false;
+                }
+                if(rounds.get(identifier)[0] > round + 1)
+                    next.add(identifier);
+            }
+            active = next;
+        }
+        indexed = true;
+        return true;
+    }
 }
@@ -0,0 +1,210 @@
+/*
+ * Copyright 2026 John Grosh (jagrosh).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.jagrosh.jmusicbot.queue;
+
+import java.util.AbstractList;
+import java.util.Collection;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * A list backed by an implicit treap (a randomized binary tree ordered by
+ * position). Positional get, set, insert and remove all run in expected
+ * O(log n), and removing a range (as done by skipping) is also O(log n).
+ *
+ * Like {@link java.util.LinkedList}, this class is not thread-safe.
+ *
+ * @author John Grosh (jagrosh)
+ * @param <T>
+ */
+public class IndexedList<T> extends AbstractList<T>
+{
+    private Node<T> root;
+
+    // scratch node used to return both halves of a split without allocating
+    private final Node<T> split = new Node<>(null);
+
+    public IndexedList()
+    {
+        root = null;
+    }
+
+    public IndexedList(Collection<? extends T> items)
+    {
+        this();
+        addAll(items);
+    }
+
+    @Override
+    public int size()
+    {
+        return size(root);
+    }
+
+    @Override
+    public T get(int index)
+    {
+        return node(index).value;
+    }
+
+    @Override
+    public T set(int index, T element)
+    {
+        Node<T> node = node(index);
+        T old = node.value;
+        node.value = element;
+        return old;
+    }
+
+    @Override
+    public void add(int index, T element)
+    {
+        if(index < 0 || index > size())
+            throw new IndexOutOfBoundsException("Index: "+index+", Size: "+size());
+        split(root, index);
+        Node<T> left = split.left, right = split.right;
+        root = merge(merge(left, new Node<>(element)), right);
+        modCount++;
+    }
+
+    @Override
+    public T remove(int index)
+    {
+        checkIndex(index);
+        split(root, index);
+        Node<T> left = split.left;
+        split(split.right, 1);
+        Node<T> removed = split.left, right = split.right;
+        root = merge(left, right);
+        modCount++;
+        return removed.value;
+    }
+
+    @Override
+    public void clear()
+    {
+        root = null;
+        modCount++;
+    }
+
+    @Override
+    protected void removeRange(int fromIndex, int toIndex)
+    {
+        if(fromIndex >= toIndex)
+            return;
+        split(root, toIndex);
+        Node<T> right = split.right;
+        split(split.left, fromIndex);
+        root = merge(split.left, right);
+        modCount++;
+    }
+
+    private void checkIndex(int index)
+    {
+        if(index < 0 || index >= size())
+            throw new IndexOutOfBoundsException("Index: "+index+", Size: "+size());
+    }
+
+    private Node<T> node(int index)
+    {
+        checkIndex(index);
+        Node<T> node = root;
+        while(true)
+        {
+            int leftSize = size(node.left);
+            if(index < leftSize)
+                node = node.left;
+            else if(index == leftSize)
+                return node;
+            else
+            {
+                index -= leftSize + 1;
+                node = node.right;
+            }
+        }
+    }
+
+    /**
+     * Splits the given tree so that the first {@code count} elements end up in
+     * {@code split.left} and the remainder in {@code split.right}
+     */
+    private void split(Node<T> node, int count)
+    {
+        if(node == null)
+        {
+            split.left = null;
+            split.right = null;
+            return;
+        }
+        int leftSize = size(node.left);
+        if(leftSize < count)
+        {
+            split(node.right, count - leftSize - 1);
+            node.right = split.left;
+            node.update();
+            split.left = node;
+        }
+        else
+        {
+            split(node.left, count);
+            node.left = split.right;
+            node.update();
+            split.right = node;
+        }
+    }
+
+    private static <T> Node<T> merge(Node<T> left, Node<T> right)
+    {
+        if(left == null)
+            return right;
+        if(right == null)
+            return left;
+        if(left.priority > right.priority)
+        {
+            left.right = merge(left.right, right);
+            left.update();
+            return left;
+        }
+        else
+        {
+            right.left = merge(left, right.left);
+            right.update();
+            return right;
+        }
+    }
+
+    private static int size(Node<?> node)
+    {
+        return node == null ? 0 : node.size;
+    }
+
+    private static class Node<T>
+    {
+        private final int priority = ThreadLocalRandom.current().nextInt();
+        private T value;
+        private int size = 1;
+        private Node<T> left, right;
+
+        private Node(T value)
+        {
+            this.value = value;
+        }
+
+        private void update()
+        {
+            size = 1 + IndexedList.size(left) + IndexedList.size(right);
+        }
+    }
+}
@@ -15,6 +15,8 @@
  */
 package com.jagrosh.jmusicbot.queue;
 
+import java.util.List;
+
 /**
  *
  * @author Wolfgang Schwendtbauer
@@ -34,4 +36,14 @@ public class LinearQueue<T extends Queueable> extends AbstractQueue<T>
         return list.size() - 1;
     }
 
+    @Override
+    public int addAll(List<T> items)
+    {
+        if(items.isEmpty())
+            return -1;
+        int first = list.size();
+        list.addAll(items);
+        return first;
+    }
+
 }
@@ -0,0 +1,105 @@
+/*
+ * Copyright 2026 John Grosh <john.a.grosh@gmail.com>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.jagrosh.jmusicbot.settings;
+
+import com.jagrosh.jmusicbot.utils.OtherUtil;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Stores every guild's settings in a single JSON file, which is read when the
+ * store is created and rewritten on every save.
+ *
+ * @author John Grosh (john.a.grosh@gmail.com)
+ */
+public class JsonSettingsStore implements SettingsStore
+{
+    private final static Logger LOG = LoggerFactory.getLogger("Settings");
+    private final Path path;
+    private final HashMap<Long,JSONObject> guilds = new HashMap<>();
+
+    public JsonSettingsStore(Path path)
+    {
+        this.path = path;
+        try {
+            guilds.putAll(read(path));
+        } catch (NoSuchFileException e) {
+            // create an empty json file
+            try {
+                LOG.info(path.getFileName() + " will be created in " + path.toAbsolutePath());
+                Files.write(path, new JSONObject().toString(4).getBytes());
+            } catch(IOException ex) {
+                LOG.warn("Failed to create new settings file: "+ex);
+            }
+            return;
+        } catch(IOException e) {
+            LOG.warn("Failed to load server settings: "+e);
+        }
+
+        LOG.info(path.getFileName() + " loaded from " + path.toAbsolutePath());
+    }
+
+    /**
+     * Reads the settings of every guild in a settings file
+     *
+     * @param path the file to read
+     * @return the settings, by guild id
+     * @throws IOException if the file could not be read or is not valid
+     */
+    static Map<Long,JSONObject> read(Path path) throws IOException
+    {
+        try
+        {
+            JSONObject loadedSettings = new JSONObject(new String(Files.readAllBytes(path)));
+            Map<Long,JSONObject> settings = new HashMap<>();
+            loadedSettings.keySet().forEach((id) -> settings.put(Long.parseLong(id), loadedSettings.getJSONObject(id)));
+            return settings;
+        }
+        catch(JSONException | NumberFormatException ex)
+        {
+            throw new IOException("Invalid settings file " + path.getFileName() + ": " + ex.getMessage(), ex);
+        }
+    }
+
+    @Override
+    public synchronized JSONObject load(long guildId)
+    {
+        return guilds.get(guildId);
+    }
+
+    @Override
+    public synchronized void save(Map<Long,JSONObject> changed) throws IOException
+    {
+        guilds.putAll(changed);
+        JSONObject obj = new JSONObject();
+        guilds.forEach((id, o) -> obj.put(Long.toString(id), o));
+        OtherUtil.writeAtomically(path, obj.toString(4).getBytes());
+    }
+
+    @Override
+    public String getLocation()
+    {
+        return path.toAbsolutePath().toString();
+    }
+}
@@ -0,0 +1,257 @@
+/*
+ * Copyright 2026 John Grosh <john.a.grosh@gmail.com>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.jagrosh.jmusicbot.settings;
+
+import com.jagrosh.jmusicbot.utils.OtherUtil;
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Stores guild settings in an append-only log file. Every save appends one
+ * line per changed guild ({@code <guild id> <json>}), and only the offset of
+ * each guild's latest line is kept in memory, so guilds are read from disk
+ * the first time they are needed. The log is compacted when most of its
+ * lines have been superseded.
+ *
+ * When the log does not exist yet, the guilds from the legacy JSON settings
+ * file are imported into it once. The import is written to a temporary file
+ * and moved into place, so the log only appears once it is complete and an
+ * interrupted import is tried again on the next start.
+ *
+ * @author John Grosh (john.a.grosh@gmail.com)
+ */
+public class LogSettingsStore implements SettingsStore
+{
+    private final static Logger LOG = LoggerFactory.getLogger("Settings");
+    private final static int COMPACT_MIN_RECORDS = 1000;
+
+    private final Path path;
+    private final HashMap<Long,Long> offsets = new HashMap<>();
+    private RandomAccessFile file;
+    private long records;
+
+    public LogSettingsStore(Path path, Path legacyPath) throws IOException
+    {
+        this.path = path;
+        if(!Files.exists(path) && legacyPath != null && Files.exists(legacyPath))
+        {
+            Map<Long,JSONObject> legacy = JsonSettingsStore.read(legacyPath);
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            for(Map.Entry<Long,JSONObject> entry: legacy.entrySet())
+                out.write(record(entry.getKey(), entry.getValue().toString()));
+            OtherUtil.writeAtomically(path, out.toByteArray());
+            LOG.info("Imported settings for " + legacy.size() + " guilds from " + legacyPath.toAbsolutePath());
+        }
+        open();
+        if(shouldCompact())
+            compact();
+        LOG.info(path.getFileName() + " loaded from " + path.toAbsolutePath() + " (" + offsets.size() + " guilds)");
+    }
+
+    @Override
+    public synchronized JSONObject load(long guildId)
+    {
+        Long offset = offsets.get(guildId);
+        if(offset == null)
+            return null;
+        try
+        {
+            String line = readLine(offset);
+            return new JSONObject(line.substring(line.indexOf(' ') + 1));
+        }
+        catch(IOException | JSONException ex)
+        {
+            LOG.warn("Failed to read settings for guild " + guildId + ": " + ex);
+            return null;
+        }
+    }
+
+    @Override
+    public synchronized void save(Map<Long,JSONObject> guilds) throws IOException
+    {
+        if(guilds.isEmpty())
+            return;
+        long offset = file.length();
+        HashMap<Long,Long> written = new HashMap<>();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        for(Map.Entry<Long,JSONObject> entry: guilds.entrySet())
+        {
+            written.put(entry.getKey(), offset + out.size());
+            out.write(record(entry.getKey(), entry.getValue().toString()));
+        }
+        try
+        {
+            append(file, offset, out.toByteArray());
+        }
+        catch(IOException ex)
+        {
+            // drop whatever part made it, so the next save starts on a new line
+            try
+            {
+                file.setLength(offset);
+            }
+            catch(IOException inner)
+            {
+                ex.addSuppressed(inner);
+            }
+            throw ex;
+        }
+        offsets.putAll(written);
+        records += guilds.size();
+        if(shouldCompact())
+            compact();
+    }
+
+    /**
+     * Writes records at the end of the log and forces them to disk
+     *
+     * @param file the log
+     * @param offset the end of the log
+     * @param bytes the records to write
+     * @throws IOException if the records could not be written
+     */
+    protected void append(RandomAccessFile file, long offset, byte[] bytes) throws IOException
+    {
+        file.seek(offset);
+        file.write(bytes);
+        file.getChannel().force(false);
+    }
+
+    @Override
+    public String getLocation()
+    {
+        return path.toAbsolutePath().toString();
+    }
+
+    @Override
+    public synchronized void close() throws IOException
+    {
+        file.close();
+    }
+
+    /**
+     * Opens the log and indexes the latest line of each guild, dropping an
+     * incomplete last line left by an interrupted write
+     */
+    private void open() throws IOException
+    {
+        file = new RandomAccessFile(path.toFile(), "rw");
+        offsets.clear();
+        records = 0;
+        long lineStart = 0, position = 0, id = 0;
+        boolean readingId = true, validId = true;
+        try(InputStream in = new BufferedInputStream(Files.newInputStream(path)))
+        {
+            int b;
+            while((b = in.read()) != -1)
+            {
+                position++;
+                if(b == '\n')
+                {
+                    if(validId && !readingId)
+                    {
+                        offsets.put(id, lineStart);
+                        records++;
+                    }
+                    lineStart = position;
+                    id = 0;
+                    readingId = true;
+                    validId = true;
+                }
+                else if(readingId)
+                {
+                    if(b == ' ')
+                        readingId = false;
+                    else if(b >= '0' && b <= '9')
+                        id = id * 10 + (b - '0');
+                    else
+                        validId = false;
+                }
+            }
+        }
+        if(lineStart < position)
+        {
+            LOG.warn("Dropping incomplete settings record at the end of " + path.getFileName());
+            file.setLength(lineStart);
+        }
+    }
+
+    private boolean shouldCompact()
+    {
+        return records > COMPACT_MIN_RECORDS && records > 2L * offsets.size();
+    }
+
+    /**
+     * Rewrites the log with only the latest line of each guild
+     */
+    private void compact() throws IOException
+    {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        for(long offset: offsets.values())
+        {
+            out.write(readLine(offset).getBytes(StandardCharsets.UTF_8));
+            out.write('\n');
+        }
+        file.close();
+        try
+        {
+            OtherUtil.writeAtomically(path, out.toByteArray());
+        }
+        finally
+        {
+            open();
+        }
+        LOG.info("Compacted " + path.getFileName() + " to " + records + " records");
+    }
+
+    private String readLine(long offset) throws IOException
+    {
+        file.seek(offset);
+        ByteArrayOutputStream line = new ByteArrayOutputStream();
+        byte[] buffer = new byte[512];
+        int read;
+        while((read = file.read(buffer)) > 0)
+        {
+            for(int i=0; i<read; i++)
+            {
+                if(buffer[i] == '\n')
+                {
+                    line.write(buffer, 0, i);
+                    return new String(line.toByteArray(), StandardCharsets.UTF_8);
+                }
+            }
+            line.write(buffer, 0, read);
+        }
+        throw new IOException("Incomplete settings record at offset " + offset);
+    }
+
+    private static byte[] record(long guildId, String json)
+    {
+        return (guildId + " " + json + "\n").getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -30,19 +30,23 @@ import net.dv8tion.jda.api.entities.channel.concrete.VoiceChannel;
 public class Settings implements GuildSettingsProvider
 {
     private final SettingsManager manager;
-    protected long textId;
-    protected long voiceId;
-    protected long roleId;
-    private int volume;
-    private String defaultPlaylist;
-    private RepeatMode repeatMode;
-    private QueueType queueType;
-    private String prefix;
-    private double skipRatio;
+    private final long guildId;
+    // fields are volatile since settings are read and changed from JDA event
+    // threads, command threads and audio threads, and written in the background
+    protected volatile long textId;
+    protected volatile long voiceId;
+    protected volatile long roleId;
+    private volatile int volume;
+    private volatile String defaultPlaylist;
+    private volatile RepeatMode repeatMode;
+    private volatile QueueType queueType;
+    private volatile String prefix;
+    private volatile double skipRatio;
 
-    public Settings(SettingsManager manager, String textId, String voiceId, String roleId, int volume, String defaultPlaylist, RepeatMode repeatMode, String prefix, double skipRatio, QueueType queueType)
+    public Settings(SettingsManager manager, long guildId, String textId, String voiceId, String roleId, int volume, String defaultPlaylist, RepeatMode repeatMode, String prefix, double skipRatio, QueueType queueType)
     {
         this.manager = manager;
+        this.guildId = guildId;
         try
         {
             this.textId = Long.parseLong(textId);
@@ -75,9 +79,10 @@ public class Settings implements GuildSettingsProvider
         this.queueType = queueType;
     }
     
-    public Settings(SettingsManager manager, long textId, long voiceId, long roleId, int volume, String defaultPlaylist, RepeatMode repeatMode, String prefix, double skipRatio, QueueType queueType)
+    public Settings(SettingsManager manager, long guildId, long textId, long voiceId, long roleId, int volume, String defaultPlaylist, RepeatMode repeatMode, String prefix, double skipRatio, QueueType queueType)
     {
         this.manager = manager;
+        this.guildId = guildId;
         this.textId = textId;
         this.voiceId = voiceId;
         this.roleId = roleId;
@@ -90,6 +95,11 @@ public class Settings implements GuildSettingsProvider
     }
     
     // Getters
+    public long getGuildId()
+    {
+        return guildId;
+    }
+    
     public TextChannel getTextChannel(Guild guild)
     {
         return guild == null ? null : guild.getTextChannelById(textId);
@@ -145,54 +155,54 @@ public class Settings implements GuildSettingsProvider
     public void setTextChannel(TextChannel tc)
     {
         this.textId = tc == null ? 0 : tc.getIdLong();
-        this.manager.writeSettings();
+        this.manager.settingsChanged(this);
     }
     
     public void setVoiceChannel(VoiceChannel vc)
     {
         this.voiceId = vc == null ? 0 : vc.getIdLong();
-        this.manager.writeSettings();
+        this.manager.settingsChanged(this);
     }
     
     public void setDJRole(Role role)
     {
         this.roleId = role == null ? 0 : role.getIdLong();
-        this.manager.writeSettings();
+        this.manager.settingsChanged(this);
     }
     
     public void setVolume(int volume)
     {
         this.volume = volume;
-        this.manager.writeSettings();
+        this.manager.settingsChanged(this);
     }
     
     public void setDefaultPlaylist(String defaultPlaylist)
     {
         this.defaultPlaylist = defaultPlaylist;
-        this.manager.writeSettings();
+        this.manager.settingsChanged(this);
     }
     
     public void setRepeatMode(RepeatMode mode)
     {
         this.repeatMode = mode;
-        this.manager.writeSettings();
+        this.manager.settingsChanged(this);
     }
     
     public void setPrefix(String prefix)
     {
         this.prefix = prefix;
-        this.manager.writeSettings();
+        this.manager.settingsChanged(this);
     }
 
     public void setSkipRatio(double skipRatio)
     {
         this.skipRatio = skipRatio;
-        this.manager.writeSettings();
+        this.manager.settingsChanged(this);
     }
 
     public void setQueueType(QueueType queueType)
     {
         this.queueType = queueType;
-        this.manager.writeSettings();
+        this.manager.settingsChanged(this);
     }
 }
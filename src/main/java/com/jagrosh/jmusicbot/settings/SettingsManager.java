@@ -16,11 +16,21 @@
 package com.jagrosh.jmusicbot.settings;
 
 import com.jagrosh.jdautilities.command.GuildSettingsManager;
+import com.jagrosh.jmusicbot.utils.ConcurrentLongMap;
 import com.jagrosh.jmusicbot.utils.OtherUtil;
 import java.io.IOException;
-import java.nio.file.Files;
-import java.nio.file.NoSuchFileException;
 import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
 import net.dv8tion.jda.api.entities.Guild;
 import org.json.JSONException;
 import org.json.JSONObject;
@@ -35,47 +45,86 @@ public class SettingsManager implements GuildSettingsManager<Settings>
 {
     private final static Logger LOG = LoggerFactory.getLogger("Settings");
     private final static String SETTINGS_FILE = "serversettings.json";
-    private final HashMap<Long,Settings> settings;
+    private final static String SETTINGS_LOG_FILE = "serversettings.log";
+    private final static long WRITE_DELAY_SECONDS = 5;
+    private final static long MAX_RETRY_DELAY_SECONDS = 300;
+    private final ConcurrentLongMap<Settings> settings;
+    private final SettingsStore store;
+    private final List<Consumer<Settings>> listeners = new CopyOnWriteArrayList<>();
+
+    // guilds changed since the last write
+    private final Set<Long> dirty = ConcurrentHashMap.newKeySet();
+    private final AtomicBoolean writeScheduled = new AtomicBoolean(false);
+    private final AtomicLong writes = new AtomicLong();
+    private final AtomicLong guildsWritten = new AtomicLong();
+    private final AtomicLong writeFailures = new AtomicLong();
+    private int failedInARow = 0; // guarded by writeSettings
+    private ScheduledExecutorService scheduler;
 
     public SettingsManager()
     {
-        this.settings = new HashMap<>();
+        this("json");
+    }
 
-        try {
-            JSONObject loadedSettings = new JSONObject(new String(Files.readAllBytes(OtherUtil.getPath(SETTINGS_FILE))));
-            loadedSettings.keySet().forEach((id) -> {
-                JSONObject o = loadedSettings.getJSONObject(id);
-
-                // Legacy version support: On versions 0.3.3 and older, the repeat mode was represented as a boolean.
-                if (!o.has("repeat_mode") && o.has("repeat") && o.getBoolean("repeat"))
-                    o.put("repeat_mode", RepeatMode.ALL);
-
-
-                settings.put(Long.parseLong(id), new Settings(this,
-                        o.has("text_channel_id") ? o.getString("text_channel_id")            : null,
-                        o.has("voice_channel_id")? o.getString("voice_channel_id")           : null,
-                        o.has("dj_role_id")      ? o.getString("dj_role_id")                 : null,
-                        o.has("volume")          ? o.getInt("volume")                        : 100,
-                        o.has("default_playlist")? o.getString("default_playlist")           : null,
-                        o.has("repeat_mode")     ? o.getEnum(RepeatMode.class, "repeat_mode"): RepeatMode.OFF,
-                        o.has("prefix")          ? o.getString("prefix")                     : null,
-                        o.has("skip_ratio")      ? o.getDouble("skip_ratio")                 : -1,
-                        o.has("queue_type")      ? o.getEnum(QueueType.class, "queue_type")  : QueueType.FAIR));
-            });
-        } catch (NoSuchFileException e) {
-            // create an empty json file
-            try {
-                LOG.info("serversettings.json will be created in " + OtherUtil.getPath("serversettings.json").toAbsolutePath());
-                Files.write(OtherUtil.getPath("serversettings.json"), new JSONObject().toString(4).getBytes());
-            } catch(IOException ex) {
-                LOG.warn("Failed to create new settings file: "+ex);
+    /**
+     * @param storeType "json" to keep settings in serversettings.json, or
+     *                  "log" to keep them in an append-only log that is
+     *                  imported from serversettings.json the first time
+     */
+    public SettingsManager(String storeType)
+    {
+        this(createStore(storeType));
+    }
+
+    public SettingsManager(SettingsStore store)
+    {
+        this.settings = new ConcurrentLongMap<>();
+        this.store = store;
+    }
+
+    private static SettingsStore createStore(String type)
+    {
+        if("log".equalsIgnoreCase(type))
+        {
+            try
+            {
+                return new LogSettingsStore(OtherUtil.getPath(SETTINGS_LOG_FILE), OtherUtil.getPath(SETTINGS_FILE));
+            }
+            catch(IOException ex)
+            {
+                LOG.warn("Failed to open " + SETTINGS_LOG_FILE + ", using " + SETTINGS_FILE + " instead: " + ex);
             }
-            return;
-        } catch(IOException | JSONException e) {
-            LOG.warn("Failed to load server settings: "+e);
         }
+        return new JsonSettingsStore(OtherUtil.getPath(SETTINGS_FILE));
+    }
 
-        LOG.info("serversettings.json loaded from " + OtherUtil.getPath("serversettings.json").toAbsolutePath());
+    /**
+     * Starts writing settings changes in the background. Until this is
+     * called, every change is written immediately.
+     *
+     * @param scheduler the executor to write settings on
+     */
+    public void init(ScheduledExecutorService scheduler)
+    {
+        this.scheduler = scheduler;
+    }
+
+    /**
+     * Writes any pending settings changes right away and closes the store
+     */
+    public void shutdown()
+    {
+        this.scheduler = null;
+        if(!dirty.isEmpty())
+            writeSettings();
+        try
+        {
+            store.close();
+        }
+        catch(IOException ex)
+        {
+            LOG.warn("Failed to close settings store: " + ex);
+        }
     }
 
     /**
@@ -92,44 +141,198 @@ public class SettingsManager implements GuildSettingsManager<Settings>
 
     public Settings getSettings(long guildId)
     {
-        return settings.computeIfAbsent(guildId, id -> createDefaultSettings());
-    }
-
-    private Settings createDefaultSettings()
-    {
-        return new Settings(this, 0, 0, 0, 100, null, RepeatMode.OFF, null, -1, QueueType.FAIR);
-    }
-
-    protected void writeSettings()
-    {
-        JSONObject obj = new JSONObject();
-        settings.keySet().stream().forEach(key -> {
-            JSONObject o = new JSONObject();
-            Settings s = settings.get(key);
-            if(s.textId!=0)
-                o.put("text_channel_id", Long.toString(s.textId));
-            if(s.voiceId!=0)
-                o.put("voice_channel_id", Long.toString(s.voiceId));
-            if(s.roleId!=0)
-                o.put("dj_role_id", Long.toString(s.roleId));
-            if(s.getVolume()!=100)
-                o.put("volume",s.getVolume());
-            if(s.getDefaultPlaylist() != null)
-                o.put("default_playlist", s.getDefaultPlaylist());
-            if(s.getRepeatMode()!=RepeatMode.OFF)
-                o.put("repeat_mode", s.getRepeatMode());
-            if(s.getPrefix() != null)
-                o.put("prefix", s.getPrefix());
-            if(s.getSkipRatio() != -1)
-                o.put("skip_ratio", s.getSkipRatio());
-            if(s.getQueueType() != QueueType.FAIR)
-                o.put("queue_type", s.getQueueType().name());
-            obj.put(Long.toString(key), o);
-        });
+        return settings.computeIfAbsent(guildId, this::loadSettings);
+    }
+
+    private Settings loadSettings(long guildId)
+    {
+        JSONObject o = store.load(guildId);
+        if(o == null)
+            return createDefaultSettings(guildId);
+        try
+        {
+            return deserialize(guildId, o);
+        }
+        catch(JSONException ex)
+        {
+            LOG.warn("Failed to load settings for guild " + guildId + ": " + ex);
+            return createDefaultSettings(guildId);
+        }
+    }
+
+    private Settings createDefaultSettings(long guildId)
+    {
+        return new Settings(this, guildId, 0, 0, 0, 100, null, RepeatMode.OFF, null, -1, QueueType.FAIR);
+    }
+
+    /**
+     * Adds a listener that is called, on the thread making the change, every
+     * time a guild's settings are changed
+     *
+     * @param listener the listener
+     */
+    public void addListener(Consumer<Settings> listener)
+    {
+        listeners.add(listener);
+    }
+
+    /**
+     * Called by the setters in {@link Settings}; schedules the change to be
+     * written and notifies listeners
+     *
+     * @param s the settings that changed
+     */
+    protected void settingsChanged(Settings s)
+    {
+        markDirty(s.getGuildId());
+        for(Consumer<Settings> listener: listeners)
+        {
+            try
+            {
+                listener.accept(s);
+            }
+            catch(Exception ex)
+            {
+                LOG.warn("Settings listener failed for guild " + s.getGuildId() + ": " + ex);
+            }
+        }
+    }
+
+    /**
+     * Marks a guild's settings as changed; changes made within a few seconds
+     * of each other are written to the store together
+     *
+     * @param guildId the guild whose settings changed
+     */
+    protected void markDirty(long guildId)
+    {
+        dirty.add(guildId);
+        ScheduledExecutorService executor = scheduler;
+        if(executor == null)
+        {
+            writeSettings();
+            return;
+        }
+        if(writeScheduled.compareAndSet(false, true))
+        {
+            try
+            {
+                executor.schedule(this::writeSettings, WRITE_DELAY_SECONDS, TimeUnit.SECONDS);
+            }
+            catch(RejectedExecutionException ex)
+            {
+                writeScheduled.set(false);
+                writeSettings();
+            }
+        }
+    }
+
+    protected synchronized void writeSettings()
+    {
+        writeScheduled.set(false);
+        Map<Long,JSONObject> changed = new HashMap<>();
+        for(Long id: dirty)
+        {
+            dirty.remove(id);
+            Settings s = settings.get(id);
+            if(s != null)
+                changed.put(id, serialize(s));
+        }
+        if(changed.isEmpty())
+            return;
         try {
-            Files.write(OtherUtil.getPath(SETTINGS_FILE), obj.toString(4).getBytes());
+            store.save(changed);
+            writes.incrementAndGet();
+            guildsWritten.addAndGet(changed.size());
+            failedInARow = 0;
         } catch(IOException ex){
-            LOG.warn("Failed to write to file: "+ex);
+            LOG.warn("Failed to write to " + store.getLocation() + ": " + ex);
+            writeFailures.incrementAndGet();
+            dirty.addAll(changed.keySet());
+            failedInARow++;
+            scheduleRetry();
         }
     }
+
+    // tries a failed write again later, waiting twice as long after every
+    // failure in a row; changes made meanwhile are written with it
+    private void scheduleRetry()
+    {
+        ScheduledExecutorService executor = scheduler;
+        if(executor == null || !writeScheduled.compareAndSet(false, true))
+            return;
+        long delay = Math.min(WRITE_DELAY_SECONDS << Math.min(failedInARow, 16), MAX_RETRY_DELAY_SECONDS);
+        try
+        {
+            executor.schedule(this::writeSettings, delay, TimeUnit.SECONDS);
+        }
+        catch(RejectedExecutionException ex)
+        {
+            // shutting down, which writes whatever is still dirty
+            writeScheduled.set(false);
+        }
+    }
+
+    /**
+     * @return how many times changed settings were written to the store
+     */
+    public long getWrites()
+    {
+        return writes.get();
+    }
+
+    /**
+     * @return how many guilds' settings were written, over all writes
+     */
+    public long getGuildsWritten()
+    {
+        return guildsWritten.get();
+    }
+
+    public long getWriteFailures()
+    {
+        return writeFailures.get();
+    }
+
+    private Settings deserialize(long guildId, JSONObject o)
+    {
+        // Legacy version support: On versions 0.3.3 and older, the repeat mode was represented as a boolean.
+        if (!o.has("repeat_mode") && o.has("repeat") && o.getBoolean("repeat"))
+            o.put("repeat_mode", RepeatMode.ALL);
+
+        return new Settings(this, guildId,
+                o.has("text_channel_id") ? o.getString("text_channel_id")            : null,
+                o.has("voice_channel_id")? o.getString("voice_channel_id")           : null,
+                o.has("dj_role_id")      ? o.getString("dj_role_id")                 : null,
+                o.has("volume")          ? o.getInt("volume")                        : 100,
+                o.has("default_playlist")? o.getString("default_playlist")           : null,
+                o.has("repeat_mode")     ? o.getEnum(RepeatMode.class, "repeat_mode"): RepeatMode.OFF,
+                o.has("prefix")          ? o.getString("prefix")                     : null,
+                o.has("skip_ratio")      ? o.getDouble("skip_ratio")                 : -1,
+                o.has("queue_type")      ? o.getEnum(QueueType.class, "queue_type")  : QueueType.FAIR);
+    }
+
+    private static JSONObject serialize(Settings s)
+    {
+        JSONObject o = new JSONObject();
+        if(s.textId!=0)
+            o.put("text_channel_id", Long.toString(s.textId));
+        if(s.voiceId!=0)
+            o.put("voice_channel_id", Long.toString(s.voiceId));
+        if(s.roleId!=0)
+            o.put("dj_role_id", Long.toString(s.roleId));
+        if(s.getVolume()!=100)
+            o.put("volume",s.getVolume());
+        if(s.getDefaultPlaylist() != null)
+            o.put("default_playlist", s.getDefaultPlaylist());
+        if(s.getRepeatMode()!=RepeatMode.OFF)
+            o.put("repeat_mode", s.getRepeatMode());
+        if(s.getPrefix() != null)
+            o.put("prefix", s.getPrefix());
+        if(s.getSkipRatio() != -1)
+            o.put("skip_ratio", s.getSkipRatio());
+        if(s.getQueueType() != QueueType.FAIR)
+            o.put("queue_type", s.getQueueType().name());
+        return o;
+    }
 }
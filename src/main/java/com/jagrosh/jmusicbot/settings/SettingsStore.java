@@ -0,0 +1,52 @@
+/*
+ * Copyright 2026 John Grosh <john.a.grosh@gmail.com>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.jagrosh.jmusicbot.settings;
+
+import java.io.IOException;
+import java.util.Map;
+import org.json.JSONObject;
+
+/**
+ * Storage backend for guild settings. Settings are stored as one JSON object
+ * per guild, in the same format as serversettings.json.
+ *
+ * @author John Grosh (john.a.grosh@gmail.com)
+ */
+public interface SettingsStore
+{
+    /**
+     * Loads the stored settings of a guild
+     *
+     * @param guildId the guild to load
+     * @return the stored settings, or null if the guild has none
+     */
+    JSONObject load(long guildId);
+
+    /**
+     * Inserts or replaces the stored settings of the given guilds
+     *
+     * @param guilds the settings to store, by guild id
+     * @throws IOException if the settings could not be written
+     */
+    void save(Map<Long, JSONObject> guilds) throws IOException;
+
+    /**
+     * @return a description of where settings are stored
+     */
+    String getLocation();
+
+    default void close() throws IOException {}
+}
@@ -0,0 +1,209 @@
+/*
+ * Copyright 2026 John Grosh <john.a.grosh@gmail.com>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.jagrosh.jmusicbot.utils;
+
+import java.util.function.LongFunction;
+
+/**
+ * A thread-safe map from primitive longs (such as guild ids) to values,
+ * without boxing the keys. The map is split into lock-striped segments, each
+ * an open-addressing hash table, so threads working on different guilds
+ * rarely contend. Null values are not supported, and entries cannot be
+ * removed.
+ *
+ * @author John Grosh (john.a.grosh@gmail.com)
+ * @param <V>
+ */
+public class ConcurrentLongMap<V>
+{
+    private final Segment<V>[] segments;
+    private final int segmentShift;
+
+    public ConcurrentLongMap()
+    {
+        this(16);
+    }
+
+    @SuppressWarnings("unchecked")
+    public ConcurrentLongMap(int concurrency)
+    {
+        int count = 1;
+        while(count < concurrency)
+            count <<= 1;
+        this.segments = new Segment[count];
+        this.segmentShift = 64 - Integer.numberOfTrailingZeros(count);
+        for(int i=0; i<count; i++)
+            segments[i] = new Segment<>();
+    }
+
+    public V get(long key)
+    {
+        long hash = hash(key);
+        return segment(hash).get(key, hash);
+    }
+
+    public V put(long key, V value)
+    {
+        if(value == null)
+            throw new NullPointerException("Null values are not supported");
+        long hash = hash(key);
+        return segment(hash).put(key, hash, value);
+    }
+
+    /**
+     * Gets the value for a key, creating it if it is missing. The value is
+     * created without holding the key's segment lock, so a slow function (such
+     * as loading from disk) doesn't block other keys; if two threads create a
+     * value for the same key at once, both get the one stored first.
+     *
+     * @param key the key
+     * @param function creates the value for a missing key; must not return null
+     * @return the existing or created value
+     */
+    public V computeIfAbsent(long key, LongFunction<? extends V> function)
+    {
+        long hash = hash(key);
+        Segment<V> segment = segment(hash);
+        V value = segment.get(key, hash);
+        if(value != null)
+            return value;
+        value = function.apply(key);
+        if(value == null)
+            throw new NullPointerException("Null values are not supported");
+        V existing = segment.putIfAbsent(key, hash, value);
+        return existing == null ? value : existing;
+    }
+
+    public int size()
+    {
+        int size = 0;
+        for(Segment<V> segment: segments)
+            size += segment.size();
+        return size;
+    }
+
+    /**
+     * Runs the consumer on every entry; each segment is locked while it is
+     * being visited
+     *
+     * @param consumer the consumer
+     */
+    public void forEach(EntryConsumer<? super V> consumer)
+    {
+        for(Segment<V> segment: segments)
+            segment.forEach(consumer);
+    }
+
+    private Segment<V> segment(long hash)
+    {
+        return segments.length == 1 ? segments[0] : segments[(int) (hash >>> segmentShift)];
+    }
+
+    // murmur3 finalizer; snowflake ids have poorly distributed low bits
+    private static long hash(long key)
+    {
+        key ^= key >>> 33;
+        key *= 0xff51afd7ed558ccdL;
+        key ^= key >>> 33;
+        key *= 0xc4ceb9fe1a85ec53L;
+        key ^= key >>> 33;
+        return key;
+    }
+
+    @FunctionalInterface
+    public interface EntryConsumer<V>
+    {
+        void accept(long key, V value);
+    }
+
+    private static class Segment<V>
+    {
+        private long[] keys = new long[16];
+        private Object[] values = new Object[16];
+        private int size = 0;
+
+        @SuppressWarnings("unchecked")
+        private synchronized V get(long key, long hash)
+        {
+            int mask = keys.length - 1;
+            for(int i = (int) hash & mask; values[i] != null; i = (i + 1) & mask)
+                if(keys[i] == key)
+                    return (V) values[i];
+            return null;
+        }
+
+        @SuppressWarnings("unchecked")
+        private synchronized V put(long key, long hash, V value)
+        {
+            int mask = keys.length - 1;
+            int i;
+            for(i = (int) hash & mask; values[i] != null; i = (i + 1) & mask)
+            {
+                if(keys[i] == key)
+                {
+                    V old = (V) values[i];
+                    values[i] = value;
+                    return old;
+                }
+            }
+            keys[i] = key;
+            values[i] = value;
+            if(++size * 4 > keys.length * 3)
+                resize();
+            return null;
+        }
+
+        private synchronized V putIfAbsent(long key, long hash, V value)
+        {
+            V existing = get(key, hash);
+            if(existing == null)
+                put(key, hash, value);
+            return existing;
+        }
+
+        private synchronized int size()
+        {
+            return size;
+        }
+
+        @SuppressWarnings("unchecked")
+        private synchronized void forEach(EntryConsumer<? super V> consumer)
+        {
+            for(int i=0; i<keys.length; i++)
+                if(values[i] != null)
+                    consumer.accept(keys[i], (V) values[i]);
+        }
+
+        private void resize()
+        {
+            long[] oldKeys = keys;
+            Object[] oldValues = values;
+            keys = new long[oldKeys.length * 2];
+            values = new Object[oldValues.length * 2];
+            int mask = keys.length - 1;
+            for(int j=0; j<oldKeys.length; j++)
+            {
+                if(oldValues[j] == null)
+                    continue;
+                int i = (int) hash(oldKeys[j]) & mask;
+                while(values[i] != null)
+                    i = (i + 1) & mask;
+                keys[i] = oldKeys[j];
+                values[i] = oldValues[j];
+            }
+        }
+    }
+}
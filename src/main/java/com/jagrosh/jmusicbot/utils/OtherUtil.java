@@ -21,8 +21,11 @@ import java.io.*;
 import java.net.URISyntaxException;
 import java.net.URL;
 import java.net.URLConnection;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
 
 import net.dv8tion.jda.api.JDA;
 import net.dv8tion.jda.api.OnlineStatus;
@@ -69,6 +72,28 @@ public class OtherUtil
         return result;
     }
     
+    /**
+     * Writes a file by writing a temporary file next to it and moving that
+     * over the original, so readers never see a partially written file
+     * 
+     * @param path the file to write
+     * @param bytes the new contents
+     * @throws IOException if the file could not be written
+     */
+    public static void writeAtomically(Path path, byte[] bytes) throws IOException
+    {
+        Path temp = path.resolveSibling(path.getFileName() + ".tmp");
+        Files.write(temp, bytes);
+        try
+        {
+            Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        }
+        catch(AtomicMoveNotSupportedException ex)
+        {
+            Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+    
     /**
      * Loads a resource from the jar as a string
      * 
@@ -0,0 +1,63 @@
+/*
+ * Copyright 2026 John Grosh (john.a.grosh@gmail.com).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.jagrosh.jmusicbot;
+
+import com.jagrosh.jmusicbot.audio.BilibiliCache;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author John Grosh (john.a.grosh@gmail.com)
+ */
+public class BilibiliCacheTest
+{
+    @Test
+    public void expiredEntriesAreDropped()
+    {
+        BilibiliCache<String, String> cache = new BilibiliCache<>(10);
+        long now = System.currentTimeMillis();
+        cache.put("a", "1", now + 60000);
+        cache.put("b", "2", now - 1);
+        assertEquals("1", cache.get("a"));
+        assertNull(cache.get("b"));
+        assertEquals(1, cache.getHits());
+        assertEquals(1, cache.getMisses());
+    }
+
+    @Test
+    public void leastRecentlyUsedIsEvicted()
+    {
+        BilibiliCache<String, String> cache = new BilibiliCache<>(2);
+        long later = System.currentTimeMillis() + 60000;
+        cache.put("a", "1", later);
+        cache.put("b", "2", later);
+        cache.get("a");
+        cache.put("c", "3", later);
+        assertEquals("1", cache.get("a"));
+        assertNull(cache.get("b"));
+        assertEquals("3", cache.get("c"));
+    }
+
+    @Test
+    public void invalidatedEntriesAreDropped()
+    {
+        BilibiliCache<String, String> cache = new BilibiliCache<>(10);
+        cache.put("a", "1", System.currentTimeMillis() + 60000);
+        cache.invalidate("a");
+        assertNull(cache.get("a"));
+    }
+}
@@ -0,0 +1,332 @@
+/*
+ * Copyright 2026 John Grosh (john.a.grosh@gmail.com).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.jagrosh.jmusicbot;
+
+import com.jagrosh.jmusicbot.audio.BilibiliAudioSourceManager;
+import com.jagrosh.jmusicbot.audio.BilibiliMirrorStream;
+import com.jagrosh.jmusicbot.audio.BilibiliStreamInfo;
+import com.sedmelluq.discord.lavaplayer.tools.io.PersistentHttpStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.net.SocketTimeoutException;
+import java.net.URI;
+import java.nio.channels.ClosedByInterruptException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.apache.http.conn.ConnectionPoolTimeoutException;
+import org.junit.After;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author John Grosh (john.a.grosh@gmail.com)
+ */
+public class BilibiliMirrorStreamTest
+{
+    private static final byte[] DATA = {0, 1, 2, 3, 4, 5, 6, 7, 8, 9};
+
+    private final BilibiliAudioSourceManager sourceManager = new BilibiliAudioSourceManager();
+    private final Map<String, Mirror> mirrors = new HashMap<>();
+    private final List<FakeStream> connected = new ArrayList<>();
+    private BilibiliStreamInfo refreshed;
+
+    @After
+    public void shutdown()
+    {
+        sourceManager.shutdown();
+    }
+
+    @Test
+    public void firstMirrorIsUsed() throws IOException
+    {
+        mirror("a", 200, -1, null);
+        mirror("b", 200, -1, null);
+        try(BilibiliMirrorStream stream = open(info("a", "b")))
+        {
+            assertArrayEquals(DATA, readAll(stream));
+        }
+        assertEquals(Arrays.asList("a"), hosts());
+        assertEquals(0, sourceManager.getMirrorFailovers());
+    }
+
+    @Test
+    public void badStatusMovesToNextMirror() throws IOException
+    {
+        mirror("a", 403, -1, null);
+        mirror("b", 200, -1, null);
+        try(BilibiliMirrorStream stream = open(info("a", "b")))
+        {
+            assertArrayEquals(DATA, readAll(stream));
+        }
+        assertEquals(Arrays.asList("a", "b"), hosts());
+        assertEquals(1, sourceManager.getMirrorFailovers());
+    }
+
+    @Test
+    public void timeoutCarriesOnFromSamePosition() throws IOException
+    {
+        mirror("a", 200, 4, new SocketTimeoutException("Read timed out"));
+        mirror("b", 200, -1, null);
+        try(BilibiliMirrorStream stream = open(info("a", "b")))
+        {
+            assertArrayEquals(DATA, readAll(stream));
+        }
+        assertEquals(Arrays.asList("a", "b"), hosts());
+        assertEquals(4, connected.get(1).start);
+        assertEquals(1, sourceManager.getMirrorFailovers());
+        assertEquals(0, sourceManager.getUrlRefreshes());
+    }
+
+    @Test
+    public void interruptIsNotAFailover() throws IOException
+    {
+        mirror("a", 200, 4, new InterruptedIOException());
+        mirror("b", 200, -1, null);
+        try(BilibiliMirrorStream stream = open(info("a", "b")))
+        {
+            readAll(stream);
+            fail();
+        }
+        catch(InterruptedIOException expected) {}
+        assertEquals(Arrays.asList("a"), hosts());
+        assertEquals(0, sourceManager.getMirrorFailovers());
+        assertEquals(0, sourceManager.getUrlRefreshes());
+    }
+
+    @Test
+    public void interruptedThreadIsNotAFailover() throws IOException
+    {
+        mirror("a", 200, 4, new ClosedByInterruptException());
+        mirror("b", 200, -1, null);
+        try(BilibiliMirrorStream stream = open(info("a", "b")))
+        {
+            stream.read(new byte[4], 0, 4);
+            Thread.currentThread().interrupt();
+            stream.read();
+            fail();
+        }
+        catch(ClosedByInterruptException expected) {}
+        finally
+        {
+            Thread.interrupted();
+        }
+        assertEquals(Arrays.asList("a"), hosts());
+        assertEquals(0, sourceManager.getMirrorFailovers());
+    }
+
+    @Test
+    public void poolTimeoutIsNotAFailover() throws IOException
+    {
+        mirror("a", 200, 4, new ConnectionPoolTimeoutException("Timeout waiting for connection from pool"));
+        mirror("b", 200, -1, null);
+        try(BilibiliMirrorStream stream = open(info("a", "b")))
+        {
+            readAll(stream);
+            fail();
+        }
+        catch(ConnectionPoolTimeoutException expected) {}
+        assertEquals(Arrays.asList("a"), hosts());
+        assertEquals(0, sourceManager.getMirrorFailovers());
+        assertEquals(0, sourceManager.getUrlRefreshes());
+    }
+
+    @Test
+    public void otherErrorsAreNotFailovers() throws IOException
+    {
+        mirror("a", 200, 4, new IOException("corrupt"));
+        mirror("b", 200, -1, null);
+        try(BilibiliMirrorStream stream = open(info("a", "b")))
+        {
+            readAll(stream);
+            fail();
+        }
+        catch(IOException expected)
+        {
+            assertEquals("corrupt", expected.getMessage());
+        }
+        assertEquals(Arrays.asList("a"), hosts());
+        assertEquals(0, sourceManager.getMirrorFailovers());
+    }
+
+    @Test
+    public void urlsAreRefreshedWhenMirrorsRunOut() throws IOException
+    {
+        mirror("a", 200, 4, new SocketTimeoutException("Read timed out"));
+        mirror("b", 403, -1, null);
+        mirror("c", 200, -1, null);
+        refreshed = info("c");
+        try(BilibiliMirrorStream stream = open(info("a", "b")))
+        {
+            assertArrayEquals(DATA, readAll(stream));
+        }
+        assertEquals(Arrays.asList("a", "b", "c"), hosts());
+        assertEquals(4, connected.get(2).start);
+        assertEquals(1, sourceManager.getUrlRefreshes());
+    }
+
+    @Test
+    public void expiredUrlsAreRefreshedBeforeConnecting() throws IOException
+    {
+        mirror("a", 200, -1, null);
+        mirror("c", 200, -1, null);
+        refreshed = info("c");
+        try(BilibiliMirrorStream stream = open(new BilibiliStreamInfo(Arrays.asList("https://a/audio.m4s?deadline=1"), "m4a", 0)))
+        {
+            assertArrayEquals(DATA, readAll(stream));
+        }
+        assertEquals(Arrays.asList("c"), hosts());
+        assertEquals(1, sourceManager.getUrlRefreshes());
+    }
+
+    @Test
+    public void unreachableMirrorsFail()
+    {
+        mirror("a", 403, -1, null);
+        refreshed = info("a");
+        try
+        {
+            open(info("a"));
+            fail();
+        }
+        catch(IOException expected) {}
+        assertEquals(Arrays.asList("a", "a"), hosts());
+    }
+
+    private void mirror(String host, int status, long failAt, IOException failure)
+    {
+        mirrors.put(host, new Mirror(status, failAt, failure));
+    }
+
+    private BilibiliStreamInfo info(String... hosts)
+    {
+        List<String> urls = new ArrayList<>();
+        for(String host: hosts)
+            urls.add("https://" + host + "/audio.m4s");
+        return new BilibiliStreamInfo(urls, "m4a", 0);
+    }
+
+    private BilibiliMirrorStream open(BilibiliStreamInfo info) throws IOException
+    {
+        return new BilibiliMirrorStream(info, sourceManager, () -> refreshed, (url, contentLength) ->
+        {
+            FakeStream stream = new FakeStream(url, mirrors.get(url.getHost()));
+            connected.add(stream);
+            return stream;
+        });
+    }
+
+    private List<String> hosts()
+    {
+        List<String> hosts = new ArrayList<>();
+        for(FakeStream stream: connected)
+            hosts.add(stream.url.getHost());
+        return hosts;
+    }
+
+    private static byte[] readAll(BilibiliMirrorStream stream) throws IOException
+    {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] buffer = new byte[3];
+        int read;
+        while((read = stream.read(buffer, 0, buffer.length)) != -1)
+            out.write(buffer, 0, read);
+        return out.toByteArray();
+    }
+
+    private static class Mirror
+    {
+        private final int status;
+        private final long failAt;
+        private final IOException failure;
+
+        private Mirror(int status, long failAt, IOException failure)
+        {
+            this.status = status;
+            this.failAt = failAt;
+            this.failure = failure;
+        }
+    }
+
+    // serves DATA, and fails once it gets to a position
+    private static class FakeStream extends PersistentHttpStream
+    {
+        private final URI url;
+        private final Mirror mirror;
+        private long start;
+        private long position;
+
+        private FakeStream(URI url, Mirror mirror)
+        {
+            super(null, url, (long) DATA.length);
+            this.url = url;
+            this.mirror = mirror;
+        }
+
+        @Override
+        public int checkStatusCode()
+        {
+            return mirror.status;
+        }
+
+        @Override
+        public void seek(long position)
+        {
+            this.start = position;
+            this.position = position;
+        }
+
+        @Override
+        public long getPosition()
+        {
+            return position;
+        }
+
+        @Override
+        public long getContentLength()
+        {
+            return DATA.length;
+        }
+
+        @Override
+        public int read() throws IOException
+        {
+            if(position == mirror.failAt)
+                throw mirror.failure;
+            return position < DATA.length ? DATA[(int) position++] : -1;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException
+        {
+            int read = 0;
+            while(read < length && position < DATA.length)
+            {
+                if(position == mirror.failAt && read > 0)
+                    break;
+                buffer[offset + read++] = (byte) read();
+            }
+            return read == 0 && length > 0 ? -1 : read;
+        }
+
+        @Override
+        public void close() {}
+    }
+}
@@ -0,0 +1,69 @@
+/*
+ * Copyright 2026 John Grosh (john.a.grosh@gmail.com).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.jagrosh.jmusicbot;
+
+import com.jagrosh.jmusicbot.audio.BilibiliConstants;
+import com.jagrosh.jmusicbot.audio.BilibiliUtil;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author John Grosh (john.a.grosh@gmail.com)
+ */
+public class BilibiliUtilTest
+{
+    @Test
+    public void urlDeadlineIsRead()
+    {
+        assertEquals(1700000000000L, BilibiliUtil.extractUrlDeadline("https://upos-sz-mirrorcos.bilivideo.com/a.m4s?e=ig8&deadline=1700000000&gen=playurlv2"));
+        assertEquals(0, BilibiliUtil.extractUrlDeadline("https://upos-sz-mirrorcos.bilivideo.com/a.m4s?e=ig8"));
+        assertEquals(0, BilibiliUtil.extractUrlDeadline("https://upos-sz-mirrorcos.bilivideo.com/a.m4s?deadline=soon"));
+        assertEquals(0, BilibiliUtil.extractUrlDeadline(null));
+    }
+
+    @Test
+    public void pageIsRead()
+    {
+        assertEquals(3, BilibiliUtil.extractPage("https://www.bilibili.com/video/BV1xx411c7mD?p=3"));
+        assertEquals(12, BilibiliUtil.extractPage("https://www.bilibili.com/video/BV1xx411c7mD/?spm_id_from=333&p=12"));
+        assertEquals(0, BilibiliUtil.extractPage("https://www.bilibili.com/video/BV1xx411c7mD?spm_id_from=333"));
+        assertEquals("https://www.bilibili.com/video/BV1xx411c7mD?p=2", BilibiliUtil.buildVideoUrl("BV1xx411c7mD", 2));
+        assertEquals("https://www.bilibili.com/video/BV1xx411c7mD", BilibiliUtil.buildVideoUrl("BV1xx411c7mD", 0));
+    }
+
+    @Test
+    public void listUrlsAreRecognized()
+    {
+        assertEquals("123", group(BilibiliConstants.FAVORITES_URL_PATTERN, "https://space.bilibili.com/42/favlist?fid=123&ftype=create", 1));
+        assertEquals("456", group(BilibiliConstants.FAVORITES_URL_PATTERN, "https://www.bilibili.com/medialist/detail/ml456", 1));
+        assertEquals("789", group(BilibiliConstants.COLLECTION_URL_PATTERN, "https://space.bilibili.com/42/channel/collectiondetail?sid=789", 2));
+        assertEquals("789", group(BilibiliConstants.COLLECTION_URL_PATTERN, "https://space.bilibili.com/42/lists/789?type=season", 3));
+        assertEquals("789", group(BilibiliConstants.COLLECTION_URL_PATTERN, "https://space.bilibili.com/42/lists/789", 3));
+        assertNull(group(BilibiliConstants.COLLECTION_URL_PATTERN, "https://space.bilibili.com/42/lists/789?type=series", 3));
+        assertEquals("789", group(BilibiliConstants.SERIES_URL_PATTERN, "https://space.bilibili.com/42/lists/789?type=series", 3));
+        assertEquals("789", group(BilibiliConstants.SERIES_URL_PATTERN, "https://space.bilibili.com/42/channel/seriesdetail?sid=789", 2));
+        assertNull(group(BilibiliConstants.FAVORITES_URL_PATTERN, "https://www.bilibili.com/video/BV1xx411c7mD", 1));
+    }
+
+    private static String group(Pattern pattern, String url, int group)
+    {
+        Matcher matcher = pattern.matcher(url);
+        return matcher.find() ? matcher.group(group) : null;
+    }
+}
@@ -0,0 +1,90 @@
+/*
+ * Copyright 2026 John Grosh (john.a.grosh@gmail.com).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.jagrosh.jmusicbot;
+
+import com.jagrosh.jmusicbot.utils.ConcurrentLongMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author John Grosh (john.a.grosh@gmail.com)
+ */
+public class ConcurrentLongMapTest
+{
+    @Test
+    public void slowComputeDoesNotBlockOtherKeys() throws Exception
+    {
+        // a single segment, so both keys share a lock
+        ConcurrentLongMap<String> map = new ConcurrentLongMap<>(1);
+        CountDownLatch computing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicReference<String> slow = new AtomicReference<>();
+        Thread thread = new Thread(() -> slow.set(map.computeIfAbsent(1L, key ->
+        {
+            computing.countDown();
+            try
+            {
+                release.await();
+            }
+            catch(InterruptedException ex)
+            {
+                Thread.currentThread().interrupt();
+            }
+            return "slow";
+        })));
+        thread.start();
+        assertTrue(computing.await(10, TimeUnit.SECONDS));
+        assertEquals("fast", map.computeIfAbsent(2L, key -> "fast"));
+        release.countDown();
+        thread.join();
+        assertEquals("slow", slow.get());
+        assertEquals("slow", map.get(1L));
+    }
+
+    @Test
+    public void racingComputesShareTheFirstValue() throws Exception
+    {
+        ConcurrentLongMap<String> map = new ConcurrentLongMap<>();
+        CountDownLatch computing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicReference<String> first = new AtomicReference<>();
+        Thread thread = new Thread(() -> first.set(map.computeIfAbsent(1L, key ->
+        {
+            computing.countDown();
+            try
+            {
+                release.await();
+            }
+            catch(InterruptedException ex)
+            {
+                Thread.currentThread().interrupt();
+            }
+            return "late";
+        })));
+        thread.start();
+        assertTrue(computing.await(10, TimeUnit.SECONDS));
+        assertEquals("early", map.computeIfAbsent(1L, key -> "early"));
+        release.countDown();
+        thread.join();
+        assertEquals("early", first.get());
+        assertEquals("early", map.get(1L));
+        assertEquals(1, map.size());
+    }
+}
@@ -17,6 +17,7 @@ package com.jagrosh.jmusicbot;
 
 import com.jagrosh.jmusicbot.queue.FairQueue;
 import com.jagrosh.jmusicbot.queue.Queueable;
+import java.util.Arrays;
 import org.junit.Test;
 import static org.junit.Assert.*;
 
@@ -46,6 +47,81 @@ public class FairQueueTest
         assertEquals(queue.size(), size);
     }
     
+    @Test
+    public void roundsFollowFirstAppearance()
+    {
+        FairQueue<Q> queue = new FairQueue<>(null);
+        for(long id: new long[]{1, 2, 3, 3, 1, 2, 1})
+            queue.add(new Q(id));
+        assertArrayEquals(new long[]{1, 2, 3, 1, 2, 3, 1}, identifiers(queue));
+    }
+
+    @Test
+    public void pullMovesRequesterToEndOfRound()
+    {
+        FairQueue<Q> queue = new FairQueue<>(null);
+        for(long id: new long[]{1, 2, 1, 2})
+            queue.add(new Q(id));
+        queue.pull();
+        assertEquals(2, queue.add(new Q(3)));
+        assertEquals(4, queue.add(new Q(1)));
+        assertArrayEquals(new long[]{2, 1, 3, 2, 1}, identifiers(queue));
+    }
+
+    @Test
+    public void addAllPlacesEachItemFairly()
+    {
+        FairQueue<Q> queue = new FairQueue<>(null);
+        queue.add(new Q(1));
+        queue.add(new Q(2));
+        queue.add(new Q(2));
+        assertEquals(2, queue.addAll(Arrays.asList(new Q(1), new Q(1), new Q(1))));
+        assertArrayEquals(new long[]{1, 2, 1, 2, 1, 1}, identifiers(queue));
+    }
+
+    @Test
+    public void addAfterFrontInsertion()
+    {
+        FairQueue<Q> queue = new FairQueue<>(null);
+        for(long id: new long[]{1, 2, 1})
+            queue.add(new Q(id));
+        queue.addAt(0, new Q(2));
+        assertEquals(4, queue.add(new Q(1)));
+        assertArrayEquals(new long[]{2, 1, 2, 1, 1}, identifiers(queue));
+    }
+
+    @Test
+    public void addAllAfterFrontInsertionMatchesAdds()
+    {
+        FairQueue<Q> batched = new FairQueue<>(null);
+        FairQueue<Q> single = new FairQueue<>(null);
+        for(FairQueue<Q> queue: Arrays.asList(batched, single))
+        {
+            for(long id: new long[]{1, 2, 3, 1, 2, 1})
+                queue.add(new Q(id));
+            queue.addAt(0, new Q(1));
+        }
+        for(long id: new long[]{2, 4})
+        {
+            int first = -1;
+            for(int i=0; i<4; i++)
+            {
+                int index = single.add(new Q(id));
+                if(first == -1)
+                    first = index;
+            }
+            assertEquals(first, batched.addAll(Arrays.asList(new Q(id), new Q(id), new Q(id), new Q(id))));
+            assertArrayEquals(identifiers(single), identifiers(batched));
+        }
+        assertEquals(single.add(new Q(1)), batched.add(new Q(1)));
+        assertArrayEquals(identifiers(single), identifiers(batched));
+    }
+
+    private long[] identifiers(FairQueue<Q> queue)
+    {
+        return queue.getList().stream().mapToLong(Q::getIdentifier).toArray();
+    }
+
     private class Q implements Queueable
     {
         private final long identifier;
@@ -0,0 +1,117 @@
+/*
+ * Copyright 2026 John Grosh (john.a.grosh@gmail.com).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.jagrosh.jmusicbot;
+
+import com.jagrosh.jmusicbot.audio.FrameRingBuffer;
+import com.sedmelluq.discord.lavaplayer.track.playback.MutableAudioFrame;
+import java.nio.ByteBuffer;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Predicate;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author John Grosh (john.a.grosh@gmail.com)
+ */
+public class FrameRingBufferTest
+{
+    @Test
+    public void framesComeOutInOrder()
+    {
+        FrameRingBuffer ring = new FrameRingBuffer(4);
+        assertEquals(4, ring.fill(counter(0, 10)));
+        for(int i=0; i<4; i++)
+            assertEquals(i, read(ring.poll(true)));
+        assertNull(ring.poll(true));
+        assertEquals(1, ring.getUnderruns());
+    }
+
+    @Test
+    public void heldSlotIsNotOverwritten()
+    {
+        FrameRingBuffer ring = new FrameRingBuffer(2);
+        Predicate<MutableAudioFrame> source = counter(0, 10);
+        ring.fill(source);
+        ByteBuffer first = ring.poll(true);
+        // the first slot is still being read, so only one more frame fits
+        assertEquals(0, ring.fill(source));
+        assertEquals(0, read(first));
+        assertEquals(1, read(ring.poll(true)));
+        assertEquals(1, ring.fill(source));
+        assertEquals(2, read(ring.poll(true)));
+    }
+
+    @Test
+    public void flushDropsBufferedFrames()
+    {
+        FrameRingBuffer ring = new FrameRingBuffer(4);
+        ring.fill(counter(0, 10));
+        ring.flush();
+        assertNull(ring.poll(false));
+        assertEquals(0, ring.getUnderruns());
+        ring.fill(counter(7, 10));
+        assertEquals(7, read(ring.poll(true)));
+    }
+
+    @Test
+    public void concurrentProducerAndConsumer() throws Exception
+    {
+        int frames = 20000;
+        FrameRingBuffer ring = new FrameRingBuffer(8);
+        Predicate<MutableAudioFrame> source = counter(0, frames);
+        AtomicBoolean failed = new AtomicBoolean(false);
+        Thread producer = new Thread(() ->
+        {
+            while(!Thread.currentThread().isInterrupted())
+                if(ring.fill(source) == 0)
+                    Thread.yield();
+        });
+        producer.start();
+        int expected = 0;
+        while(expected < frames)
+        {
+            ByteBuffer buffer = ring.poll(false);
+            if(buffer == null)
+                Thread.yield();
+            else if(read(buffer) != expected++)
+                failed.set(true);
+        }
+        producer.interrupt();
+        producer.join();
+        assertFalse(failed.get());
+    }
+
+    // a source giving frames that contain increasing numbers, up to a limit
+    private static Predicate<MutableAudioFrame> counter(int start, int limit)
+    {
+        int[] next = {start};
+        return frame ->
+        {
+            if(next[0] >= limit)
+                return false;
+            int value = next[0]++;
+            frame.store(new byte[]{(byte) (value >> 24), (byte) (value >> 16), (byte) (value >> 8), (byte) value}, 0, 4);
+            return true;
+        };
+    }
+
+    private static int read(ByteBuffer buffer)
+    {
+        assertEquals(4, buffer.remaining());
+        return buffer.getInt(buffer.position());
+    }
+}
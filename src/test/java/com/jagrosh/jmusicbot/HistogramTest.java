@@ -0,0 +1,72 @@
+/*
+ * Copyright 2026 John Grosh (john.a.grosh@gmail.com).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.jagrosh.jmusicbot;
+
+import com.jagrosh.jmusicbot.metrics.Histogram;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author John Grosh (john.a.grosh@gmail.com)
+ */
+public class HistogramTest
+{
+    @Test
+    public void valuesLandInTheirBuckets()
+    {
+        Histogram histogram = new Histogram(new long[]{10, 20, 50});
+        histogram.record(10);
+        histogram.record(11);
+        histogram.record(20);
+        histogram.record(100);
+        assertEquals(1, histogram.getBucketCount(0));
+        assertEquals(2, histogram.getBucketCount(1));
+        assertEquals(0, histogram.getBucketCount(2));
+        assertEquals(1, histogram.getBucketCount(3));
+        assertEquals(4, histogram.getCount());
+        assertEquals(141, histogram.getSum());
+        assertEquals(100, histogram.getMax());
+    }
+
+    @Test
+    public void percentiles()
+    {
+        Histogram histogram = new Histogram();
+        assertEquals(0, histogram.getPercentile(50));
+        for(int i=0; i<98; i++)
+            histogram.record(20);
+        histogram.record(90);
+        histogram.record(60000);
+        assertEquals(20, histogram.getPercentile(50));
+        assertEquals(100, histogram.getPercentile(99));
+        assertEquals(60000, histogram.getPercentile(100));
+    }
+
+    @Test
+    public void merge()
+    {
+        Histogram first = new Histogram(), second = new Histogram(), total = new Histogram();
+        first.record(5);
+        second.record(500);
+        second.record(3);
+        first.mergeInto(total);
+        second.mergeInto(total);
+        assertEquals(3, total.getCount());
+        assertEquals(508, total.getSum());
+        assertEquals(500, total.getMax());
+    }
+}
@@ -0,0 +1,96 @@
+/*
+ * Copyright 2026 John Grosh (john.a.grosh@gmail.com).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.jagrosh.jmusicbot;
+
+import com.jagrosh.jmusicbot.queue.IndexedList;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author John Grosh (john.a.grosh@gmail.com)
+ */
+public class IndexedListTest
+{
+    @Test
+    public void appendAndGet()
+    {
+        IndexedList<Integer> list = new IndexedList<>();
+        for(int i=0; i<1000; i++)
+            list.add(i);
+        assertEquals(1000, list.size());
+        for(int i=0; i<1000; i++)
+            assertEquals(i, (int) list.get(i));
+    }
+
+    @Test
+    public void skipClearsPrefix()
+    {
+        IndexedList<Integer> list = new IndexedList<>();
+        for(int i=0; i<100; i++)
+            list.add(i);
+        list.subList(0, 40).clear();
+        assertEquals(60, list.size());
+        assertEquals(40, (int) list.get(0));
+        assertEquals(99, (int) list.get(59));
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void outOfBounds()
+    {
+        new IndexedList<Integer>().get(0);
+    }
+
+    @Test
+    public void matchesArrayList()
+    {
+        Random random = new Random(42);
+        List<Integer> expected = new ArrayList<>();
+        IndexedList<Integer> actual = new IndexedList<>();
+        for(int i=0; i<20000; i++)
+        {
+            int op = random.nextInt(5);
+            if(op <= 1 || expected.isEmpty())
+            {
+                int index = random.nextInt(expected.size() + 1);
+                expected.add(index, i);
+                actual.add(index, i);
+            }
+            else if(op == 2)
+            {
+                int index = random.nextInt(expected.size());
+                assertEquals(expected.remove(index), actual.remove(index));
+            }
+            else if(op == 3)
+            {
+                int index = random.nextInt(expected.size());
+                assertEquals(expected.set(index, -i), actual.set(index, -i));
+            }
+            else
+            {
+                int from = random.nextInt(expected.size());
+                int to = from + random.nextInt(Math.min(5, expected.size() - from) + 1);
+                expected.subList(from, to).clear();
+                actual.subList(from, to).clear();
+            }
+            assertEquals(expected.size(), actual.size());
+        }
+        assertEquals(expected, actual);
+    }
+}
@@ -0,0 +1,161 @@
+/*
+ * Copyright 2026 John Grosh (john.a.grosh@gmail.com).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.jagrosh.jmusicbot;
+
+import com.jagrosh.jmusicbot.audio.LoadCoalescer;
+import com.sedmelluq.discord.lavaplayer.player.AudioPlayerManager;
+import com.sedmelluq.discord.lavaplayer.source.AudioSourceManager;
+import com.sedmelluq.discord.lavaplayer.track.AudioItem;
+import com.sedmelluq.discord.lavaplayer.track.AudioReference;
+import com.sedmelluq.discord.lavaplayer.track.AudioTrack;
+import com.sedmelluq.discord.lavaplayer.track.AudioTrackInfo;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author John Grosh (john.a.grosh@gmail.com)
+ */
+public class LoadCoalescerTest
+{
+    private final BlockingManager source = new BlockingManager();
+    private final LoadCoalescer coalescer = new LoadCoalescer(() -> Arrays.asList(this.coalescer, source));
+
+    @Test
+    public void overlappingLoadsShareOneLookup() throws Exception
+    {
+        AtomicReference<Object> first = new AtomicReference<>();
+        AtomicReference<Object> second = new AtomicReference<>();
+        Thread leader = load("ytsearch:Some Song", first);
+        source.entered.await();
+        Thread follower = load("ytsearch:some  song", second);
+        while(coalescer.getCoalesced() == 0)
+            Thread.yield();
+        source.release.countDown();
+        leader.join();
+        follower.join();
+        assertEquals(1, source.calls.get());
+        assertEquals("found", ((AudioReference) first.get()).identifier);
+        assertEquals("found", ((AudioReference) second.get()).identifier);
+        assertEquals(1, coalescer.getLeaders());
+
+        // nothing is in flight any more, so this looks it up again
+        coalescer.loadItem(null, new AudioReference("ytsearch:some song", null));
+        assertEquals(2, source.calls.get());
+    }
+
+    @Test
+    public void failuresReachEveryLoad() throws Exception
+    {
+        source.failure = new IllegalStateException("broken");
+        AtomicReference<Object> first = new AtomicReference<>();
+        AtomicReference<Object> second = new AtomicReference<>();
+        Thread leader = load("https://example.com/a.mp3", first);
+        source.entered.await();
+        Thread follower = load("https://example.com/a.mp3 ", second);
+        while(coalescer.getCoalesced() == 0)
+            Thread.yield();
+        source.release.countDown();
+        leader.join();
+        follower.join();
+        assertEquals(1, source.calls.get());
+        assertSame(source.failure, first.get());
+        assertSame(source.failure, second.get());
+    }
+
+    @Test
+    public void nothingFoundIsNoTrack()
+    {
+        source.release.countDown();
+        source.result = null;
+        assertSame(AudioReference.NO_TRACK, coalescer.loadItem(null, new AudioReference("nothing", null)));
+    }
+
+    // loads an identifier on a new thread, keeping the result or exception
+    private Thread load(String identifier, AtomicReference<Object> result)
+    {
+        Thread thread = new Thread(() -> 
+        {
+            try
+            {
+                result.set(coalescer.loadItem(null, new AudioReference(identifier, null)));
+            }
+            catch(RuntimeException ex)
+            {
+                result.set(ex);
+            }
+        });
+        thread.start();
+        return thread;
+    }
+
+    private static class BlockingManager implements AudioSourceManager
+    {
+        private final CountDownLatch entered = new CountDownLatch(1);
+        private final CountDownLatch release = new CountDownLatch(1);
+        private final AtomicInteger calls = new AtomicInteger();
+        private volatile AudioItem result = new AudioReference("found", null);
+        private volatile RuntimeException failure = null;
+
+        @Override
+        public String getSourceName()
+        {
+            return "blocking";
+        }
+
+        @Override
+        public AudioItem loadItem(AudioPlayerManager manager, AudioReference reference)
+        {
+            calls.incrementAndGet();
+            entered.countDown();
+            try
+            {
+                release.await();
+            }
+            catch(InterruptedException ex)
+            {
+                Thread.currentThread().interrupt();
+            }
+            if(failure != null)
+                throw failure;
+            return result;
+        }
+
+        @Override
+        public boolean isTrackEncodable(AudioTrack track)
+        {
+            return false;
+        }
+
+        @Override
+        public void encodeTrack(AudioTrack track, DataOutput output) {}
+
+        @Override
+        public AudioTrack decodeTrack(AudioTrackInfo trackInfo, DataInput input)
+        {
+            return null;
+        }
+
+        @Override
+        public void shutdown() {}
+    }
+}
@@ -0,0 +1,187 @@
+/*
+ * Copyright 2026 John Grosh (john.a.grosh@gmail.com).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.jagrosh.jmusicbot;
+
+import com.jagrosh.jmusicbot.audio.LoadScheduler;
+import com.jagrosh.jmusicbot.audio.LoadScheduler.Priority;
+import com.sedmelluq.discord.lavaplayer.player.AudioLoadResultHandler;
+import com.sedmelluq.discord.lavaplayer.tools.FriendlyException;
+import com.sedmelluq.discord.lavaplayer.track.AudioPlaylist;
+import com.sedmelluq.discord.lavaplayer.track.AudioTrack;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author John Grosh (john.a.grosh@gmail.com)
+ */
+public class LoadSchedulerTest
+{
+    // loads that were started, and the handlers to finish them with
+    private final List<String> started = new ArrayList<>();
+    private final List<AudioLoadResultHandler> running = new ArrayList<>();
+
+    private void submit(LoadScheduler scheduler, long guild, Priority priority, String name)
+    {
+        scheduler.submit(guild, priority, NOTHING, handler -> 
+        {
+            started.add(name);
+            running.add(handler);
+        });
+    }
+
+    private void finish(String name)
+    {
+        running.get(started.indexOf(name)).noMatches();
+    }
+
+    @Test
+    public void limitsLoadsPerGuild()
+    {
+        LoadScheduler scheduler = new LoadScheduler(4, 2);
+        for(int i=0; i<5; i++)
+            submit(scheduler, 1, Priority.BULK, "a" + i);
+        submit(scheduler, 2, Priority.BULK, "b0");
+        assertEquals(Arrays.asList("a0", "a1", "b0"), started);
+        assertEquals(3, scheduler.getActive());
+        assertEquals(3, scheduler.getQueued(Priority.BULK));
+        assertEquals(3, scheduler.getLargestGuildQueue());
+        finish("a0");
+        assertEquals(Arrays.asList("a0", "a1", "b0", "a2"), started);
+    }
+
+    @Test
+    public void guildsTakeTurns()
+    {
+        LoadScheduler scheduler = new LoadScheduler(1, 1);
+        for(int i=0; i<3; i++)
+            submit(scheduler, 1, Priority.BULK, "a" + i);
+        for(int i=0; i<2; i++)
+            submit(scheduler, 2, Priority.BULK, "b" + i);
+        for(int i=0; i<4; i++)
+            finish(started.get(i));
+        assertEquals(Arrays.asList("a0", "a1", "b0", "a2", "b1"), started);
+    }
+
+    @Test
+    public void interactiveLoadsGoFirst()
+    {
+        LoadScheduler scheduler = new LoadScheduler(1, 1);
+        submit(scheduler, 1, Priority.BULK, "a0");
+        submit(scheduler, 1, Priority.BULK, "a1");
+        submit(scheduler, 2, Priority.BULK, "b0");
+        submit(scheduler, 3, Priority.INTERACTIVE, "c0");
+        finish("a0");
+        finish("c0");
+        assertEquals(Arrays.asList("a0", "c0", "a1"), started);
+        assertEquals(1, scheduler.getQueued(Priority.BULK));
+        assertEquals(0, scheduler.getQueued(Priority.INTERACTIVE));
+    }
+
+    @Test
+    public void resultsAreReportedOnce()
+    {
+        LoadScheduler scheduler = new LoadScheduler(1, 1);
+        submit(scheduler, 1, Priority.BULK, "a0");
+        submit(scheduler, 1, Priority.BULK, "a1");
+        running.get(0).noMatches();
+        running.get(0).noMatches();
+        assertEquals(1, scheduler.getActive());
+        assertEquals(Arrays.asList("a0", "a1"), started);
+        finish("a1");
+        assertEquals(0, scheduler.getActive());
+    }
+
+    @Test
+    public void loadsFreedAtOnceStartInOrder() throws Exception
+    {
+        for(int attempt=0; attempt<5; attempt++)
+        {
+            LoadScheduler scheduler = new LoadScheduler(2, 2);
+            submit(scheduler, 1, Priority.BULK, "a0");
+            submit(scheduler, 1, Priority.BULK, "a1");
+
+            // b0 takes a while to start, which would let b1 overtake it if the
+            // two finishing loads each started one of them
+            List<String> order = Collections.synchronizedList(new ArrayList<>());
+            CountDownLatch b1Started = new CountDownLatch(1);
+            scheduler.submit(2, Priority.BULK, NOTHING, handler -> 
+            {
+                try
+                {
+                    b1Started.await(100, TimeUnit.MILLISECONDS);
+                }
+                catch(InterruptedException ex)
+                {
+                    Thread.currentThread().interrupt();
+                }
+                order.add("b0");
+            });
+            scheduler.submit(2, Priority.BULK, NOTHING, handler -> 
+            {
+                order.add("b1");
+                b1Started.countDown();
+            });
+
+            CountDownLatch go = new CountDownLatch(1);
+            List<Thread> threads = new ArrayList<>();
+            for(AudioLoadResultHandler handler: running)
+            {
+                Thread thread = new Thread(() -> 
+                {
+                    try
+                    {
+                        go.await();
+                    }
+                    catch(InterruptedException ex)
+                    {
+                        return;
+                    }
+                    handler.noMatches();
+                });
+                thread.start();
+                threads.add(thread);
+            }
+            go.countDown();
+            for(Thread thread: threads)
+                thread.join();
+            assertEquals(Arrays.asList("b0", "b1"), order);
+            started.clear();
+            running.clear();
+        }
+    }
+
+    private static final AudioLoadResultHandler NOTHING = new AudioLoadResultHandler()
+    {
+        @Override
+        public void trackLoaded(AudioTrack track) {}
+
+        @Override
+        public void playlistLoaded(AudioPlaylist playlist) {}
+
+        @Override
+        public void noMatches() {}
+
+        @Override
+        public void loadFailed(FriendlyException exception) {}
+    };
+}
@@ -0,0 +1,137 @@
+/*
+ * Copyright 2026 John Grosh (john.a.grosh@gmail.com).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.jagrosh.jmusicbot;
+
+import com.jagrosh.jmusicbot.settings.LogSettingsStore;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.stream.Stream;
+import org.json.JSONObject;
+import org.junit.After;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author John Grosh (john.a.grosh@gmail.com)
+ */
+public class LogSettingsStoreTest
+{
+    private final Path dir;
+    private final Path log;
+    private final Path legacy;
+
+    public LogSettingsStoreTest() throws IOException
+    {
+        dir = Files.createTempDirectory("settings");
+        log = dir.resolve("serversettings.log");
+        legacy = dir.resolve("serversettings.json");
+    }
+
+    @After
+    public void cleanUp() throws IOException
+    {
+        try(Stream<Path> files = Files.walk(dir))
+        {
+            files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    @Test
+    public void failedWriteIsRolledBack() throws IOException
+    {
+        FailingStore store = new FailingStore(log);
+        store.save(Collections.singletonMap(1L, volume(10)));
+        store.failing = true;
+        try
+        {
+            store.save(Collections.singletonMap(2L, volume(20)));
+            fail();
+        }
+        catch(IOException expected) {}
+        store.failing = false;
+        store.save(Collections.singletonMap(3L, volume(30)));
+        store.close();
+
+        LogSettingsStore reopened = new LogSettingsStore(log, null);
+        assertEquals(10, reopened.load(1L).getInt("volume"));
+        assertNull(reopened.load(2L));
+        assertEquals(30, reopened.load(3L).getInt("volume"));
+        reopened.close();
+    }
+
+    @Test
+    public void legacySettingsAreImported() throws IOException
+    {
+        Files.write(legacy, "{\"1\": {\"volume\": 50}, \"2\": {\"prefix\": \"!\"}}".getBytes(StandardCharsets.UTF_8));
+        LogSettingsStore store = new LogSettingsStore(log, legacy);
+        assertEquals(50, store.load(1L).getInt("volume"));
+        assertEquals("!", store.load(2L).getString("prefix"));
+        store.close();
+    }
+
+    @Test
+    public void failedImportIsTriedAgain() throws IOException
+    {
+        Files.write(legacy, "{\"1\": {\"volume\": 50}".getBytes(StandardCharsets.UTF_8));
+        try
+        {
+            new LogSettingsStore(log, legacy);
+            fail();
+        }
+        catch(IOException expected) {}
+        assertFalse(Files.exists(log));
+
+        Files.write(legacy, "{\"1\": {\"volume\": 50}}".getBytes(StandardCharsets.UTF_8));
+        LogSettingsStore store = new LogSettingsStore(log, legacy);
+        assertEquals(50, store.load(1L).getInt("volume"));
+        store.close();
+    }
+
+    private static JSONObject volume(int volume)
+    {
+        return new JSONObject().put("volume", volume);
+    }
+
+    // writes only half of the records, then fails, while failing is set
+    private static class FailingStore extends LogSettingsStore
+    {
+        private volatile boolean failing = false;
+
+        private FailingStore(Path path) throws IOException
+        {
+            super(path, null);
+        }
+
+        @Override
+        protected void append(RandomAccessFile file, long offset, byte[] bytes) throws IOException
+        {
+            if(!failing)
+            {
+                super.append(file, offset, bytes);
+                return;
+            }
+            file.seek(offset);
+            file.write(bytes, 0, bytes.length / 2);
+            throw new IOException("disk full");
+        }
+    }
+}
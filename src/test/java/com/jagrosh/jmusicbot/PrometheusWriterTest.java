@@ -0,0 +1,65 @@
+/*
+ * Copyright 2026 John Grosh (john.a.grosh@gmail.com).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.jagrosh.jmusicbot;
+
+import com.jagrosh.jmusicbot.metrics.Histogram;
+import com.jagrosh.jmusicbot.metrics.PrometheusWriter;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author John Grosh (john.a.grosh@gmail.com)
+ */
+public class PrometheusWriterTest
+{
+    @Test
+    public void samplesWithLabels()
+    {
+        String out = new PrometheusWriter()
+                .metric("loads_total", "counter", "Loads.")
+                .sample("loads_total", 3, "source", "youtube", "result", "track")
+                .sample("up", 1.5)
+                .toString();
+        assertEquals("# HELP loads_total Loads.\n"
+                + "# TYPE loads_total counter\n"
+                + "loads_total{source=\"youtube\",result=\"track\"} 3\n"
+                + "up 1.5\n", out);
+    }
+
+    @Test
+    public void labelValuesAreEscaped()
+    {
+        String out = new PrometheusWriter().sample("x", 0, "name", "a\"b\\c\nd").toString();
+        assertEquals("x{name=\"a\\\"b\\\\c\\nd\"} 0\n", out);
+    }
+
+    @Test
+    public void histogramBucketsAreCumulative()
+    {
+        Histogram h = new Histogram();
+        h.record(1);
+        h.record(3);
+        h.record(100000);
+        String out = new PrometheusWriter().histogram("lat", h, "source", "http").toString();
+        assertTrue(out.contains("lat_bucket{source=\"http\",le=\"1\"} 1\n"));
+        assertTrue(out.contains("lat_bucket{source=\"http\",le=\"5\"} 2\n"));
+        assertTrue(out.contains("lat_bucket{source=\"http\",le=\"30000\"} 2\n"));
+        assertTrue(out.contains("lat_bucket{source=\"http\",le=\"+Inf\"} 3\n"));
+        assertTrue(out.contains("lat_sum{source=\"http\"} 100004\n"));
+        assertTrue(out.contains("lat_count{source=\"http\"} 3\n"));
+    }
+}
@@ -0,0 +1,44 @@
+/*
+ * Copyright 2026 John Grosh (john.a.grosh@gmail.com).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.jagrosh.jmusicbot;
+
+import com.jagrosh.jmusicbot.audio.SearchCache;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author John Grosh (john.a.grosh@gmail.com)
+ */
+public class SearchCacheTest
+{
+    @Test
+    public void similarQueriesShareAKey()
+    {
+        assertEquals("ytsearch:never gonna give you up", SearchCache.key("ytsearch:Never Gonna  Give you up "));
+        assertEquals(SearchCache.key("YTSEARCH: rick astley"), SearchCache.key("ytsearch:rick\tastley"));
+        assertEquals("scsearch:lofi", SearchCache.key("scsearch:LoFi"));
+    }
+
+    @Test
+    public void onlySearchesHaveKeys()
+    {
+        assertNull(SearchCache.key("https://www.youtube.com/watch?v=dQw4w9WgXcQ"));
+        assertNull(SearchCache.key("never gonna give you up"));
+        assertNull(SearchCache.key(null));
+        assertNotEquals(SearchCache.key("ytsearch:lofi"), SearchCache.key("scsearch:lofi"));
+    }
+}
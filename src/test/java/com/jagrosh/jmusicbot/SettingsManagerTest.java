@@ -0,0 +1,194 @@
+/*
+ * Copyright 2026 John Grosh (john.a.grosh@gmail.com).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.jagrosh.jmusicbot;
+
+import com.jagrosh.jmusicbot.settings.RepeatMode;
+import com.jagrosh.jmusicbot.settings.Settings;
+import com.jagrosh.jmusicbot.settings.SettingsManager;
+import com.jagrosh.jmusicbot.settings.SettingsStore;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import org.json.JSONObject;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author John Grosh (john.a.grosh@gmail.com)
+ */
+public class SettingsManagerTest
+{
+    private static final int THREADS = 8;
+    private static final int GUILDS = 200;
+    private static final int OPERATIONS = 20000;
+
+    @Test
+    public void concurrentAccessWhilePersisting() throws Exception
+    {
+        MemoryStore store = new MemoryStore();
+        SettingsManager manager = new SettingsManager(store);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Settings[]>> results = new ArrayList<>();
+        for(int t=0; t<THREADS; t++)
+        {
+            int seed = t;
+            results.add(executor.submit(() ->
+            {
+                Random random = new Random(seed);
+                Settings[] seen = new Settings[GUILDS];
+                start.await();
+                for(int i=0; i<OPERATIONS; i++)
+                {
+                    int guild = random.nextInt(GUILDS);
+                    Settings s = manager.getSettings(guild);
+                    if(seen[guild] == null)
+                        seen[guild] = s;
+                    assertSame(seen[guild], s);
+                    if(random.nextInt(10) == 0)
+                        s.setVolume(random.nextInt(150));
+                    else if(random.nextInt(10) == 0)
+                        s.setRepeatMode(RepeatMode.values()[random.nextInt(RepeatMode.values().length)]);
+                }
+                return seen;
+            }));
+        }
+        start.countDown();
+        List<Settings[]> seen = new ArrayList<>();
+        for(Future<Settings[]> result: results)
+            seen.add(result.get(1, TimeUnit.MINUTES));
+        executor.shutdown();
+
+        for(int guild=0; guild<GUILDS; guild++)
+        {
+            Settings s = manager.getSettings(guild);
+            for(Settings[] threadSeen: seen)
+                if(threadSeen[guild] != null)
+                    assertSame(s, threadSeen[guild]);
+            JSONObject stored = store.guilds.get((long) guild);
+            if(stored != null)
+            {
+                assertEquals(s.getVolume(), stored.optInt("volume", 100));
+                assertEquals(s.getRepeatMode().name(), stored.optString("repeat_mode", RepeatMode.OFF.name()));
+            }
+        }
+    }
+
+    @Test
+    public void listenersSeeEveryChange()
+    {
+        SettingsManager manager = new SettingsManager(new MemoryStore());
+        List<Settings> changed = new ArrayList<>();
+        manager.addListener(changed::add);
+        Settings s = manager.getSettings(1L);
+        s.setVolume(50);
+        s.setRepeatMode(RepeatMode.SINGLE);
+        manager.getSettings(2L).setPrefix("!");
+        assertEquals(3, changed.size());
+        assertSame(s, changed.get(0));
+        assertSame(s, changed.get(1));
+        assertEquals(2L, changed.get(2).getGuildId());
+    }
+
+    @Test
+    public void failedWritesAreRetriedWithBackoff()
+    {
+        MemoryStore store = new MemoryStore();
+        store.failures = 2;
+        SettingsManager manager = new SettingsManager(store);
+        ManualScheduler scheduler = new ManualScheduler();
+        manager.init(scheduler);
+        manager.getSettings(1L).setVolume(50);
+        for(int i=0; i<3; i++)
+            scheduler.runNext();
+        assertTrue(scheduler.tasks.isEmpty());
+        assertEquals(2, manager.getWriteFailures());
+        assertEquals(1, manager.getWrites());
+        assertEquals(50, store.guilds.get(1L).getInt("volume"));
+        assertTrue(scheduler.delays.get(1) > scheduler.delays.get(0));
+        assertTrue(scheduler.delays.get(2) > scheduler.delays.get(1));
+
+        // a successful write ends the backoff
+        manager.getSettings(1L).setVolume(60);
+        assertEquals(scheduler.delays.get(0), scheduler.delays.get(3));
+        scheduler.shutdown();
+    }
+
+    // only collects scheduled writes, which the test then runs itself
+    private static class ManualScheduler extends ScheduledThreadPoolExecutor
+    {
+        private final List<Runnable> tasks = new ArrayList<>();
+        private final List<Long> delays = new ArrayList<>();
+
+        private ManualScheduler()
+        {
+            super(1);
+        }
+
+        @Override
+        public ScheduledFuture<?> schedule(Runnable command, long delay, TimeUnit unit)
+        {
+            tasks.add(command);
+            delays.add(unit.toSeconds(delay));
+            return null;
+        }
+
+        private void runNext()
+        {
+            tasks.remove(0).run();
+        }
+    }
+
+    private static class MemoryStore implements SettingsStore
+    {
+        private final Map<Long, JSONObject> guilds = new ConcurrentHashMap<>();
+        private volatile int failures = 0;
+
+        @Override
+        public JSONObject load(long guildId)
+        {
+            return guilds.get(guildId);
+        }
+
+        @Override
+        public void save(Map<Long, JSONObject> changed) throws IOException
+        {
+            if(failures > 0)
+            {
+                failures--;
+                throw new IOException("disk full");
+            }
+            guilds.putAll(changed);
+        }
+
+        @Override
+        public String getLocation()
+        {
+            return "memory";
+        }
+    }
+}
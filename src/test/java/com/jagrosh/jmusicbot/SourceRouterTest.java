@@ -0,0 +1,137 @@
+/*
+ * Copyright 2026 John Grosh (john.a.grosh@gmail.com).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.jagrosh.jmusicbot;
+
+import com.jagrosh.jmusicbot.audio.SourceRouter;
+import com.sedmelluq.discord.lavaplayer.player.AudioPlayerManager;
+import com.sedmelluq.discord.lavaplayer.source.AudioSourceManager;
+import com.sedmelluq.discord.lavaplayer.track.AudioItem;
+import com.sedmelluq.discord.lavaplayer.track.AudioReference;
+import com.sedmelluq.discord.lavaplayer.track.AudioTrack;
+import com.sedmelluq.discord.lavaplayer.track.AudioTrackInfo;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.util.regex.Pattern;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author John Grosh (john.a.grosh@gmail.com)
+ */
+public class SourceRouterTest
+{
+    private final StubManager youtube = new StubManager("youtube", true);
+    private final StubManager soundcloud = new StubManager("soundcloud", false);
+    private final StubManager transform = new StubManager("transform", true);
+
+    private SourceRouter router()
+    {
+        SourceRouter router = new SourceRouter();
+        router.addPattern(Pattern.compile("https?://(www\\.)?youtube\\.com/shorts/.*"), transform);
+        router.addHosts(youtube, "youtube.com", "youtu.be");
+        router.addPrefixes(youtube, "ytsearch");
+        router.addHosts(soundcloud, "soundcloud.com");
+        return router;
+    }
+
+    @Test
+    public void routesByHostAndParentDomains()
+    {
+        SourceRouter router = router();
+        assertSame(youtube, router.route("https://www.youtube.com/watch?v=abc"));
+        assertSame(youtube, router.route("HTTP://music.YouTube.com/watch?v=abc"));
+        assertSame(youtube, router.route("https://youtu.be/abc"));
+        assertSame(soundcloud, router.route("https://m.soundcloud.com:443/artist/track"));
+        assertNull(router.route("https://notyoutube.com/watch?v=abc"));
+        assertNull(router.route("https://example.com/youtube.com"));
+    }
+
+    @Test
+    public void routesByPrefixAndPattern()
+    {
+        SourceRouter router = router();
+        assertSame(youtube, router.route("ytsearch:never gonna give you up"));
+        assertSame(youtube, router.route("YTSEARCH:query"));
+        assertSame(transform, router.route("https://youtube.com/shorts/abc"));
+        assertNull(router.route("scsearch:query"));
+        assertNull(router.route("/music/song.mp3"));
+        assertNull(router.route(null));
+    }
+
+    @Test
+    public void declinedLoadsAreNotAskedAgain()
+    {
+        SourceRouter router = router();
+        AudioReference reference = new AudioReference("https://soundcloud.com/artist", null);
+        assertNull(router.loadItem(null, reference));
+        assertEquals(1, soundcloud.calls);
+        assertTrue(router.isDeclined(soundcloud, reference));
+        assertFalse(router.isDeclined(youtube, reference));
+        assertFalse(router.isDeclined(soundcloud, new AudioReference("https://soundcloud.com/artist", null)));
+
+        AudioReference other = new AudioReference("ytsearch:query", null);
+        assertSame(StubManager.ITEM, router.loadItem(null, other));
+        assertFalse(router.isDeclined(soundcloud, reference));
+        assertEquals(1, router.getRouted());
+        assertEquals(1, router.getDeclined());
+    }
+
+    private static class StubManager implements AudioSourceManager
+    {
+        private final static AudioItem ITEM = new AudioReference("loaded", null);
+        private final String name;
+        private final boolean loads;
+        private int calls = 0;
+
+        private StubManager(String name, boolean loads)
+        {
+            this.name = name;
+            this.loads = loads;
+        }
+
+        @Override
+        public String getSourceName()
+        {
+            return name;
+        }
+
+        @Override
+        public AudioItem loadItem(AudioPlayerManager manager, AudioReference reference)
+        {
+            calls++;
+            return loads ? ITEM : null;
+        }
+
+        @Override
+        public boolean isTrackEncodable(AudioTrack track)
+        {
+            return false;
+        }
+
+        @Override
+        public void encodeTrack(AudioTrack track, DataOutput output) {}
+
+        @Override
+        public AudioTrack decodeTrack(AudioTrackInfo trackInfo, DataInput input)
+        {
+            return null;
+        }
+
+        @Override
+        public void shutdown() {}
+    }
+}
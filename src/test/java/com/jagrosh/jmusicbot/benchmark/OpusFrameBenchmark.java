@@ -0,0 +1,112 @@
+/*
+ * Copyright 2026 John Grosh (john.a.grosh@gmail.com).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.jagrosh.jmusicbot.benchmark;
+
+import com.sedmelluq.discord.lavaplayer.format.StandardAudioDataFormats;
+import com.sedmelluq.discord.lavaplayer.track.playback.AllocatingAudioFrameBuffer;
+import com.sedmelluq.discord.lavaplayer.track.playback.AudioFrame;
+import com.sedmelluq.discord.lavaplayer.track.playback.AudioFrameBuffer;
+import com.sedmelluq.discord.lavaplayer.track.playback.MutableAudioFrame;
+import com.sedmelluq.discord.lavaplayer.track.playback.NonAllocatingAudioFrameBuffer;
+import java.nio.ByteBuffer;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Compares how an Opus frame gets from a track to JDA before and after
+ * PlayerManager switched frame buffers. Each frame goes through lavaplayer's
+ * real frame buffers: before, the default AllocatingAudioFrameBuffer with
+ * AudioPlayer.provide() wrapping the frame's data in a new ByteBuffer; after,
+ * NonAllocatingAudioFrameBuffer with provide(MutableAudioFrame) copying into
+ * a reused direct buffer. The main method runs with the GC profiler, so
+ * gc.alloc.rate.norm shows the bytes allocated per frame for each path.
+ *
+ * @author John Grosh (john.a.grosh@gmail.com)
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class OpusFrameBenchmark
+{
+    // a typical 20ms Opus frame at Discord's bitrate
+    private static final int FRAME_SIZE = 160;
+    // lavaplayer's default frame buffer duration
+    private static final int BUFFER_DURATION_MS = 5000;
+
+    private AudioFrameBuffer allocating;
+    private AudioFrameBuffer nonAllocating;
+    // what the track's side offers to the frame buffer
+    private MutableAudioFrame offered;
+    private ByteBuffer buffer;
+    private MutableAudioFrame frame;
+    private long timecode = 0;
+
+    @Setup
+    public void setup()
+    {
+        AtomicBoolean stopping = new AtomicBoolean(false);
+        allocating = new AllocatingAudioFrameBuffer(BUFFER_DURATION_MS, StandardAudioDataFormats.DISCORD_OPUS, stopping);
+        nonAllocating = new NonAllocatingAudioFrameBuffer(BUFFER_DURATION_MS, StandardAudioDataFormats.DISCORD_OPUS, stopping);
+
+        byte[] opus = new byte[FRAME_SIZE];
+        ThreadLocalRandom.current().nextBytes(opus);
+        offered = new MutableAudioFrame();
+        offered.setBuffer(ByteBuffer.allocate(StandardAudioDataFormats.DISCORD_OPUS.maximumChunkSize()));
+        offered.setFormat(StandardAudioDataFormats.DISCORD_OPUS);
+        offered.setVolume(100);
+        offered.store(opus, 0, opus.length);
+
+        buffer = ByteBuffer.allocateDirect(StandardAudioDataFormats.DISCORD_OPUS.maximumChunkSize());
+        frame = new MutableAudioFrame();
+        frame.setBuffer(buffer);
+    }
+
+    @Benchmark
+    public ByteBuffer allocatingFrameBuffer() throws InterruptedException
+    {
+        offered.setTimecode(timecode += 20);
+        allocating.consume(offered);
+        AudioFrame provided = allocating.provide();
+        return ByteBuffer.wrap(provided.getData());
+    }
+
+    @Benchmark
+    public ByteBuffer nonAllocatingFrameBuffer() throws InterruptedException
+    {
+        offered.setTimecode(timecode += 20);
+        nonAllocating.consume(offered);
+        buffer.clear();
+        nonAllocating.provide(frame);
+        return buffer.flip();
+    }
+
+    public static void main(String[] args) throws RunnerException
+    {
+        new Runner(new OptionsBuilder()
+                .include(OpusFrameBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build()).run();
+    }
+}
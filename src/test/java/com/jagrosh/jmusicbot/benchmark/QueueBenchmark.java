@@ -0,0 +1,105 @@
+/*
+ * Copyright 2026 John Grosh (john.a.grosh@gmail.com).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.jagrosh.jmusicbot.benchmark;
+
+import com.jagrosh.jmusicbot.queue.IndexedList;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Compares the queue storage used by AbstractQueue before (LinkedList) and
+ * after (IndexedList) for the positional operations the queue commands use.
+ * Run the main method from the test classpath.
+ *
+ * @author John Grosh (john.a.grosh@gmail.com)
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class QueueBenchmark
+{
+    private static final int PAGE_SIZE = 10;
+
+    @Param({"LinkedList", "IndexedList"})
+    public String backing;
+
+    @Param({"10000"})
+    public int size;
+
+    private List<Long> list;
+
+    @Setup
+    public void setup()
+    {
+        list = backing.equals("LinkedList") ? new LinkedList<>() : new IndexedList<>();
+        for(long i=0; i<size; i++)
+            list.add(i % 16); // 16 requesters
+    }
+
+    @Benchmark
+    public Long get()
+    {
+        return list.get(ThreadLocalRandom.current().nextInt(size));
+    }
+
+    @Benchmark
+    public void page(Blackhole bh)
+    {
+        int start = ThreadLocalRandom.current().nextInt(size - PAGE_SIZE);
+        for(int i=start; i<start+PAGE_SIZE; i++)
+            bh.consume(list.get(i));
+    }
+
+    @Benchmark
+    public void moveItem()
+    {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        Long item = list.remove(random.nextInt(size));
+        list.add(random.nextInt(size), item);
+    }
+
+    @Benchmark
+    public void insertAndRemoveMiddle()
+    {
+        list.add(size / 2, 0L);
+        list.remove(size / 2);
+    }
+
+    @Benchmark
+    public void shuffleSwap()
+    {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int first = random.nextInt(size), second = random.nextInt(size);
+        Long temp = list.get(first);
+        list.set(first, list.get(second));
+        list.set(second, temp);
+    }
+
+    public static void main(String[] args) throws RunnerException
+    {
+        new Runner(new OptionsBuilder().include(QueueBenchmark.class.getSimpleName()).build()).run();
+    }
+}